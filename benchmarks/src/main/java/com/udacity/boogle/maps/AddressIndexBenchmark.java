@@ -0,0 +1,61 @@
+package com.udacity.boogle.maps;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of AddressIndex.nearest over addresses spread across
+ * the US, sampled so that the p50 and p99 of a lookup are reported.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AddressIndexBenchmark {
+
+    private static final int LOOKUPS = 1 << 16;
+
+    @Param("1000000")
+    private int size;
+
+    private AddressIndex index;
+    private final double[] lats = new double[LOOKUPS];
+    private final double[] lons = new double[LOOKUPS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        AddressIndex.Builder builder = new AddressIndex.Builder();
+        for (int i = 0; i < size; i++) {
+            builder.add(25 + random.nextDouble() * 24, -124 + random.nextDouble() * 57,
+                    new Address(i + " Main St", "Springfield", "IL", "62701"));
+        }
+        index = builder.build();
+        for (int i = 0; i < LOOKUPS; i++) {
+            lats[i] = 25 + random.nextDouble() * 24;
+            lons[i] = -124 + random.nextDouble() * 57;
+        }
+    }
+
+    @Benchmark
+    public Optional<Address> nearest() {
+        int i = next++ & (LOOKUPS - 1);
+        return index.nearest(lats[i], lons[i]);
+    }
+}
@@ -0,0 +1,39 @@
+package com.udacity.boogle.maps;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares getRandom() on the pre-parsed table with parsing the address on
+ * every request, as getRandom() used to.  Run with `-prof gc` to see that
+ * preParsed allocates nothing per call (`gc.alloc.rate.norm`).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MockAddressRepositoryBenchmark {
+
+    @Benchmark
+    public Address preParsed() {
+        return MockAddressRepository.getRandom();
+    }
+
+    @Benchmark
+    public Address parsedPerRequest() {
+        Random generator = new Random();
+        int randomIndex = generator.nextInt(MockAddressRepository.ADDRESSES.length);
+        return MockAddressRepository.parse(MockAddressRepository.ADDRESSES[randomIndex]);
+    }
+}
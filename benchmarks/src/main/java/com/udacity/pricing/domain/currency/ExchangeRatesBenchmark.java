@@ -0,0 +1,56 @@
+package com.udacity.pricing.domain.currency;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Measures converting a price to another currency, from the precomputed
+ * rates between every pair of currencies, against going through the base
+ * currency and looking up the minor units on every conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExchangeRatesBenchmark {
+
+    private final BigDecimal amount = new BigDecimal("21500.00");
+    private final Map<String, BigDecimal> baseRates = Map.of(
+            "USD", BigDecimal.ONE, "EUR", new BigDecimal("0.9215"), "JPY", new BigDecimal("149.52"));
+    private ExchangeRates rates;
+
+    @Setup
+    public void setUp() throws IOException {
+        rates = new ExchangeRates(new ClassPathResource("fx-rates.properties"));
+    }
+
+    @Benchmark
+    public BigDecimal convert() {
+        return rates.convert(amount, "EUR", "JPY");
+    }
+
+    @Benchmark
+    public BigDecimal convertThroughBase() {
+        BigDecimal base = amount.divide(baseRates.get("EUR"), MathContext.DECIMAL64);
+        return base.multiply(baseRates.get("JPY"))
+                .setScale(Currency.getInstance("JPY").getDefaultFractionDigits(), RoundingMode.HALF_EVEN);
+    }
+}
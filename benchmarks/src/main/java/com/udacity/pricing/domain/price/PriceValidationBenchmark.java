@@ -0,0 +1,116 @@
+package com.udacity.pricing.domain.price;
+
+import com.udacity.pricing.domain.currency.CurrencyCode;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures validating a batch of 1,000 prices, as a bulk import does, with
+ * the ISO 4217 lookup of the currency code, against the regular expression
+ * listing every code it replaced.  Also measures checking a single code
+ * both ways.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PriceValidationBenchmark {
+
+    private static final String CODES = "AED|AFN|ALL|AMD|ANG|AOA|ARS|AUD|AWG|AZN|BAM|BBD|BDT|BGN|BHD|BIF|BMD|BND|BOB|BOV|BRL|BSD|BTN|BWP|BYN|BZD|CAD|CDF|CHE|CHF|CHW|CLF|CLP|CNY|COP|COU|CRC|CUC|CUP|CVE|CZK|DJF|DKK|DOP|DZD|EGP|ERN|ETB|EUR|FJD|FKP|GBP|GEL|GHS|GIP|GMD|GNF|GTQ|GYD|HKD|HNL|HRK|HTG|HUF|IDR|ILS|INR|IQD|IRR|ISK|JMD|JOD|JPY|KES|KGS|KHR|KMF|KPW|KRW|KWD|KYD|KZT|LAK|LBP|LKR|LRD|LSL|LYD|MAD|MDL|MGA|MKD|MMK|MNT|MOP|MRU|MUR|MVR|MWK|MXN|MXV|MYR|MZN|NAD|NGN|NIO|NOK|NPR|NZD|OMR|PAB|PEN|PGK|PHP|PKR|PLN|PYG|QAR|RON|RSD|RUB|RWF|SAR|SBD|SCR|SDG|SEK|SGD|SHP|SLL|SOS|SRD|SSP|STN|SVC|SYP|SZL|THB|TJS|TMT|TND|TOP|TRY|TTD|TWD|TZS|UAH|UGX|USD|USN|UYI|UYU|UYW|UZS|VES|VND|VUV|WST|XAF|XAG|XAU";
+    private static final Pattern CODES_PATTERN = Pattern.compile(CODES);
+    private static final String[] SAMPLE_CODES = {"USD", "EUR", "JPY", "GBP", "MXN", "SEK", "UYU", "ABC"};
+
+    private final List<Price> prices = new ArrayList<>();
+    private final List<PatternPrice> patternPrices = new ArrayList<>();
+    private ValidatorFactory factory;
+    private Validator validator;
+    private int next;
+
+    /**
+     * A price validated the way it was before the lookup.
+     */
+    public static class PatternPrice {
+
+        @javax.validation.constraints.Pattern(message = "currency.code.invalid", regexp = CODES)
+        @NotBlank(message = "currency.code.required")
+        private final String currency;
+
+        @NotNull(message = "price.required")
+        private final BigDecimal price;
+
+        @NotNull(message = "vehicle_id.required")
+        private final Long vehicleId;
+
+        PatternPrice(String currency, BigDecimal price, Long vehicleId) {
+            this.currency = currency;
+            this.price = price;
+            this.vehicleId = vehicleId;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+        for (long i = 0; i < 1000; i++) {
+            String currency = SAMPLE_CODES[(int) (i % SAMPLE_CODES.length)];
+            BigDecimal amount = BigDecimal.valueOf(10000 + i * 7, 2);
+            prices.add(new Price(currency, amount, i));
+            patternPrices.add(new PatternPrice(currency, amount, i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+
+    @Benchmark
+    public int validateBatch() {
+        int violations = 0;
+        for (Price price : prices) {
+            violations += validator.validate(price).size();
+        }
+        return violations;
+    }
+
+    @Benchmark
+    public int validateBatchWithPattern() {
+        int violations = 0;
+        for (PatternPrice price : patternPrices) {
+            violations += validator.validate(price).size();
+        }
+        return violations;
+    }
+
+    @Benchmark
+    public CurrencyCode findCode() {
+        return CurrencyCode.find(SAMPLE_CODES[next++ & 7]);
+    }
+
+    @Benchmark
+    public boolean matchCode() {
+        return CODES_PATTERN.matcher(SAMPLE_CODES[next++ & 7]).matches();
+    }
+}
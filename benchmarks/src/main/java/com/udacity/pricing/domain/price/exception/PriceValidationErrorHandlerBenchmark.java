@@ -0,0 +1,60 @@
+package com.udacity.pricing.domain.price.exception;
+
+import com.udacity.pricing.domain.price.Price;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.RollbackException;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import me.alidg.errors.HandledException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionSystemException;
+
+/**
+ * Measures turning the failures of an invalid price into error codes: the
+ * constraint violations wrapped by the transaction commit, and a duplicate
+ * vehicle id.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PriceValidationErrorHandlerBenchmark {
+
+    private final PriceValidationErrorHandler handler = new PriceValidationErrorHandler();
+    private Throwable invalidPrice;
+    private Throwable duplicateVehicleId;
+
+    @Setup
+    public void setUp() {
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            ConstraintViolationException violations = new ConstraintViolationException(
+                    factory.getValidator().validate(new Price("XYZ", null, null)));
+            invalidPrice = new TransactionSystemException("Could not commit JPA transaction",
+                    new RollbackException("Error while committing the transaction", violations));
+        }
+        duplicateVehicleId = new DataIntegrityViolationException("could not execute statement");
+    }
+
+    @Benchmark
+    public HandledException handleInvalidPrice() {
+        return handler.handle(invalidPrice);
+    }
+
+    @Benchmark
+    public HandledException handleDuplicateVehicleId() {
+        return handler.handle(duplicateVehicleId);
+    }
+}
@@ -0,0 +1,69 @@
+package com.udacity.vehicles.api;
+
+import com.udacity.vehicles.domain.car.Car;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.Resource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.methodOn;
+
+/**
+ * Measures building a car resource and its links within a request, and from
+ * a collection href resolved once per request, against resolving both links
+ * through the controller as the assembler used to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CarResourceAssemblerBenchmark {
+
+    private final CarResourceAssembler assembler = new CarResourceAssembler();
+    private final Car car = Cars.car();
+    private String carsHref;
+
+    @Setup
+    public void setUp() {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest("GET", "/cars/1")));
+        carsHref = assembler.carsHref();
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Resource<Car> toResource() {
+        return assembler.toResource(car);
+    }
+
+    @Benchmark
+    public Resource<Car> toResourceWithHref() {
+        return assembler.toResource(car, carsHref);
+    }
+
+    @Benchmark
+    public Resource<Car> toResourceWithLinkTo() {
+        return new Resource<>(car,
+                linkTo(methodOn(CarController.class).get(car.getId(), null)).withSelfRel(),
+                linkTo(CarController.class).withRel("cars"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.udacity.vehicles.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.udacity.vehicles.domain.car.Car;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.core.EvoInflectorRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Measures writing a car resource as HAL JSON, as `GET /cars/{id}` does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CarResourceJsonBenchmark {
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new Jackson2HalModule())
+            .handlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                    new EvoInflectorRelProvider(), null, null))
+            .build();
+
+    private final Resource<Car> resource = new Resource<>(Cars.car(),
+            new Link("http://localhost:8080/cars/1").withSelfRel(),
+            new Link("http://localhost:8080/cars").withRel("cars"));
+
+    @Benchmark
+    public byte[] writeCarResource() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(resource);
+    }
+}
@@ -0,0 +1,37 @@
+package com.udacity.vehicles.api;
+
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+
+/**
+ * Builds the car the vehicles benchmarks work on.
+ */
+final class Cars {
+
+    private Cars() {
+    }
+
+    static Car car() {
+        Car car = new Car();
+        car.setId(1L);
+        car.setLocation(new Location(40.730610, -73.935242));
+        Details details = new Details();
+        details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+        details.setModel("Impala");
+        details.setMileage(32280);
+        details.setExternalColor("white");
+        details.setBody("sedan");
+        details.setEngine("3.6L V6");
+        details.setFuelType("Gasoline");
+        details.setModelYear(2018);
+        details.setProductionYear(2018);
+        details.setNumberOfDoors(4);
+        car.setDetails(details);
+        car.setCondition(Condition.USED);
+        car.setPrice("USD 21,500.00");
+        return car;
+    }
+}
@@ -0,0 +1,84 @@
+package com.udacity.vehicles.client.maps;
+
+import com.udacity.vehicles.client.DownstreamPolicy;
+import com.udacity.vehicles.domain.Location;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures MapsClient.getAddress when the address is cached, where the cost
+ * is copying the address onto the location, and when it comes from the Maps
+ * service, answered in memory so only decoding and copying are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapsClientBenchmark {
+
+    private static final String ADDRESS =
+            "{\"address\":\"777 Brockton Avenue\",\"city\":\"Abington\",\"state\":\"MA\",\"zip\":\"02351\"}";
+
+    private MapsClient cached;
+    private MapsClient uncached;
+
+    @Setup
+    public void setUp() {
+        WebClient maps = WebClient.builder()
+                .baseUrl("http://localhost:9191")
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(ADDRESS)
+                        .build()))
+                .build();
+
+        MeterRegistry cachedRegistry = new SimpleMeterRegistry();
+        cached = client(maps, new AddressCache(4, 10_000, 3600, cachedRegistry), cachedRegistry);
+        cached.getAddress(location());
+
+        MeterRegistry uncachedRegistry = new SimpleMeterRegistry();
+        uncached = client(maps, new AddressCache(4, 10_000, 0, uncachedRegistry), uncachedRegistry);
+    }
+
+    @Benchmark
+    public Location getAddressCached() {
+        return cached.getAddress(location());
+    }
+
+    @Benchmark
+    public Location getAddressFromService() {
+        return uncached.getAddress(location());
+    }
+
+    private static Location location() {
+        return new Location(42.1046, -70.9453);
+    }
+
+    private static MapsClient client(WebClient maps, AddressCache cache, MeterRegistry registry) {
+        DownstreamPolicy policy = DownstreamPolicy.of("maps", Duration.ofSeconds(2), 200,
+                50, 20, Duration.ofSeconds(30), BulkheadRegistry.ofDefaults(), CircuitBreakerRegistry.ofDefaults());
+        return new MapsClient(maps, cache, policy, registry);
+    }
+}
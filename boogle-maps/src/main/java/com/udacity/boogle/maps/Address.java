@@ -2,16 +2,15 @@ package com.udacity.boogle.maps;
 
 /**
  * Declares a class to store an address, city, state and zip code.
+ * Instances are immutable, so the same address can be shared by every
+ * response answering it.
  */
-public class Address {
+public final class Address {
 
-    private String address;
-    private String city;
-    private String state;
-    private String zip;
-
-    public Address() {
-    }
+    private final String address;
+    private final String city;
+    private final String state;
+    private final String zip;
 
     public Address(String address, String city, String state, String zip) {
         this.address = address;
@@ -24,31 +23,15 @@ public class Address {
         return address;
     }
 
-    public void setAddress(String address) {
-        this.address = address;
-    }
-
     public String getCity() {
         return city;
     }
 
-    public void setCity(String city) {
-        this.city = city;
-    }
-
     public String getState() {
         return state;
     }
 
-    public void setState(String state) {
-        this.state = state;
-    }
-
     public String getZip() {
         return zip;
     }
-
-    public void setZip(String zip) {
-        this.zip = zip;
-    }
 }
@@ -0,0 +1,237 @@
+package com.udacity.boogle.maps;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.core.io.Resource;
+
+/**
+ * Implements an immutable spatial index answering the address nearest to
+ * a latitude and longitude.
+ *
+ * Addresses are placed on the unit sphere and stored as a balanced k-d tree
+ * laid out in arrays, so a lookup visits O(log n) addresses on average and
+ * always answers the same address for the same coordinates.  The straight
+ * line distance between two points of the sphere grows with their great
+ * circle distance, so the nearest point in the tree is the nearest address
+ * on Earth, across the poles and the antimeridian too.
+ */
+public class AddressIndex {
+
+    private static final int DIMENSIONS = 3;
+
+    private final double[] points;
+    private final Address[] addresses;
+
+    private AddressIndex(double[] points, Address[] addresses) {
+        this.points = points;
+        this.addresses = addresses;
+    }
+
+    /**
+     * Reads an index from a JSON array of addresses, each with its
+     * `address`, `city`, `state`, `zip`, `lat` and `lon`.
+     * @param resource the JSON array of addresses
+     * @param mapper reads the JSON
+     * @return the index of the addresses
+     * @throws IOException if the resource cannot be read
+     */
+    public static AddressIndex load(Resource resource, ObjectMapper mapper) throws IOException {
+        Builder builder = new Builder();
+        try (InputStream in = resource.getInputStream();
+             MappingIterator<GeocodedAddress> entries = mapper.readerFor(GeocodedAddress.class).readValues(in)) {
+            while (entries.hasNext()) {
+                GeocodedAddress entry = entries.next();
+                builder.add(entry.lat, entry.lon,
+                        new Address(entry.address, entry.city, entry.state, entry.zip));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Finds the address nearest to the given coordinates.
+     * @param lat the latitude in degrees
+     * @param lon the longitude in degrees
+     * @return the nearest address, or empty if the index is empty
+     */
+    public Optional<Address> nearest(double lat, double lon) {
+        if (addresses.length == 0) {
+            return Optional.empty();
+        }
+        double[] target = new double[DIMENSIONS];
+        toPoint(lat, lon, target, 0);
+        Nearest nearest = new Nearest();
+        search(0, addresses.length, 0, target, nearest);
+        return Optional.of(addresses[nearest.node]);
+    }
+
+    /**
+     * @return the number of indexed addresses
+     */
+    public int size() {
+        return addresses.length;
+    }
+
+    private void search(int from, int to, int axis, double[] target, Nearest nearest) {
+        if (from >= to) {
+            return;
+        }
+        int node = (from + to) >>> 1;
+        double distance = distance(node, target);
+        if (distance < nearest.distance) {
+            nearest.node = node;
+            nearest.distance = distance;
+        }
+
+        double delta = target[axis] - points[node * DIMENSIONS + axis];
+        int next = (axis + 1) % DIMENSIONS;
+        if (delta < 0) {
+            search(from, node, next, target, nearest);
+            if (delta * delta < nearest.distance) {
+                search(node + 1, to, next, target, nearest);
+            }
+        } else {
+            search(node + 1, to, next, target, nearest);
+            if (delta * delta < nearest.distance) {
+                search(from, node, next, target, nearest);
+            }
+        }
+    }
+
+    private double distance(int node, double[] target) {
+        double dx = points[node * DIMENSIONS] - target[0];
+        double dy = points[node * DIMENSIONS + 1] - target[1];
+        double dz = points[node * DIMENSIONS + 2] - target[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static void toPoint(double lat, double lon, double[] points, int offset) {
+        double phi = Math.toRadians(lat);
+        double lambda = Math.toRadians(lon);
+        points[offset] = Math.cos(phi) * Math.cos(lambda);
+        points[offset + 1] = Math.cos(phi) * Math.sin(lambda);
+        points[offset + 2] = Math.sin(phi);
+    }
+
+    /**
+     * The closest address found so far in a lookup.
+     */
+    private static final class Nearest {
+        int node;
+        double distance = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Collects addresses and their coordinates, then arranges them as a tree.
+     */
+    public static class Builder {
+
+        private final List<Address> addresses = new ArrayList<>();
+        private double[] points = new double[1024 * DIMENSIONS];
+
+        /**
+         * Adds an address.
+         * @param lat the latitude of the address in degrees
+         * @param lon the longitude of the address in degrees
+         * @param address the address
+         * @return this builder
+         */
+        public Builder add(double lat, double lon, Address address) {
+            int offset = addresses.size() * DIMENSIONS;
+            if (offset == points.length) {
+                double[] grown = new double[points.length * 2];
+                System.arraycopy(points, 0, grown, 0, points.length);
+                points = grown;
+            }
+            toPoint(lat, lon, points, offset);
+            addresses.add(address);
+            return this;
+        }
+
+        /**
+         * Arranges the addresses as a balanced tree, in O(n log n).
+         * @return the index of the added addresses
+         */
+        public AddressIndex build() {
+            int size = addresses.size();
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            arrange(order, 0, size, 0);
+
+            double[] tree = new double[size * DIMENSIONS];
+            Address[] sorted = new Address[size];
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(points, order[i] * DIMENSIONS, tree, i * DIMENSIONS, DIMENSIONS);
+                sorted[i] = addresses.get(order[i]);
+            }
+            return new AddressIndex(tree, sorted);
+        }
+
+        /**
+         * Puts the median along the axis in the middle of the range, the
+         * smaller points before it and the others after, then does the
+         * same for both halves along the next axis.
+         */
+        private void arrange(int[] order, int from, int to, int axis) {
+            if (to - from <= 1) {
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            select(order, from, to - 1, middle, axis);
+            int next = (axis + 1) % DIMENSIONS;
+            arrange(order, from, middle, next);
+            arrange(order, middle + 1, to, next);
+        }
+
+        private void select(int[] order, int left, int right, int k, int axis) {
+            while (left < right) {
+                double pivot = coordinate(order[(left + right) >>> 1], axis);
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (coordinate(order[i], axis) < pivot) {
+                        i++;
+                    }
+                    while (coordinate(order[j], axis) > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        int swap = order[i];
+                        order[i++] = order[j];
+                        order[j--] = swap;
+                    }
+                }
+                if (k <= j) {
+                    right = j;
+                } else if (k >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private double coordinate(int address, int axis) {
+            return points[address * DIMENSIONS + axis];
+        }
+    }
+
+    /**
+     * An address and its coordinates, as stored in the address dataset.
+     */
+    static class GeocodedAddress {
+        public String address;
+        public String city;
+        public String state;
+        public String zip;
+        public double lat;
+        public double lon;
+    }
+}
@@ -1,13 +1,39 @@
 package com.udacity.boogle.maps;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.Resource;
 
 @SpringBootApplication
 public class BoogleMapsApplication {
 
+	private static final Logger log = LoggerFactory.getLogger(BoogleMapsApplication.class);
+
 	public static void main(String[] args) {
 		SpringApplication.run(BoogleMapsApplication.class, args);
 	}
 
+	/**
+	 * Loads the geocoded addresses into a spatial index once, at startup.
+	 * @param addresses the JSON array of addresses with their coordinates
+	 * @param mapper reads the JSON
+	 * @return the index answering the address nearest to a location
+	 * @throws IOException if the addresses cannot be read
+	 */
+	@Bean
+	public AddressIndex addressIndex(@Value("${maps.addresses}") Resource addresses,
+									 ObjectMapper mapper) throws IOException {
+		long start = System.nanoTime();
+		AddressIndex index = AddressIndex.load(addresses, mapper);
+		log.info("Indexed {} addresses from {} in {} ms", index.size(), addresses.getDescription(),
+				(System.nanoTime() - start) / 1_000_000);
+		return index;
+	}
+
 }
@@ -9,8 +9,21 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/maps")
 public class MapsController {
 
+    private final AddressIndex addresses;
+
+    public MapsController(AddressIndex addresses) {
+        this.addresses = addresses;
+    }
+
+    /**
+     * Gets the known address nearest to a location, or a random address
+     * when no geocoded addresses were loaded.
+     * @param lat the latitude of the location
+     * @param lon the longitude of the location
+     * @return the address of the location
+     */
     @GetMapping
     public Address get(@RequestParam Double lat, @RequestParam Double lon) {
-        return MockAddressRepository.getRandom();
+        return addresses.nearest(lat, lon).orElseGet(MockAddressRepository::getRandom);
     }
 }
@@ -2,7 +2,7 @@ package com.udacity.boogle.maps;
 
 import java.util.Arrays;
 import java.util.LinkedList;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -12,15 +12,19 @@ class MockAddressRepository {
 
     /**
      * Gets a random address from the list.
-     * @return A new, random address split into street, city, state and zip
+     * @return A random address split into street, city, state and zip
      */
     static Address getRandom() {
+        return TABLE[ThreadLocalRandom.current().nextInt(TABLE.length)];
+    }
 
-        Random generator = new Random();
-        int randomIndex = generator.nextInt(ADDRESSES.length);
-
-        String address = ADDRESSES[randomIndex];
-
+    /**
+     * Splits an address such as "777 Brockton Avenue, Abington MA 2351"
+     * into street, city, state and zip.
+     * @param address the address in one line
+     * @return the parsed address
+     */
+    static Address parse(String address) {
         String[] addressParts = address.split(",");
         String streetAndNumber = addressParts[0];
         String cityStateAndZip = addressParts[1];
@@ -39,9 +43,9 @@ class MockAddressRepository {
     }
 
     /**
-     * An array of random addresses for use in getRandom()
+     * An array of random addresses, parsed once into TABLE
      */
-    private static final String[] ADDRESSES = {
+    static final String[] ADDRESSES = {
             "777 Brockton Avenue, Abington MA 2351",
             "30 Memorial Drive, Avon MA 2322",
             "250 Hartford Avenue, Bellingham MA 2019",
@@ -250,7 +254,7 @@ class MockAddressRepository {
             "15445 Highway 24, Moulton AL 35650",
             "517 West Avalon Ave, Muscle Shoals AL 35661",
             "5710 Mcfarland Blvd, Northport AL 35476",
-            "2453 2Nd Avenue East, Oneonta AL 35121  205-625-647",
+            "2453 2Nd Avenue East, Oneonta AL 35121",
             "2900 Pepperrell Pkwy, Opelika AL 36801",
             "92 Plaza Lane, Oxford AL 36203",
             "1537 Hwy 231 South, Ozark AL 36360",
@@ -277,4 +281,10 @@ class MockAddressRepository {
             "4538 Us Hwy 231, Wetumpka AL 36092",
             "2575 Us Hwy 43, Winfield AL 35594"
     };
+
+    /**
+     * The addresses parsed at class load, shared by every getRandom() call
+     */
+    private static final Address[] TABLE =
+            Arrays.stream(ADDRESSES).map(MockAddressRepository::parse).toArray(Address[]::new);
 }
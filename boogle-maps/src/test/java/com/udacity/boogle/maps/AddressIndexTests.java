@@ -0,0 +1,90 @@
+package com.udacity.boogle.maps;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Random;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.junit.Assert.*;
+
+public class AddressIndexTests {
+
+    private static AddressIndex dataset;
+
+    @BeforeClass
+    public static void loadDataset() throws Exception {
+        dataset = AddressIndex.load(new ClassPathResource("adresses.json"), new ObjectMapper());
+    }
+
+    @Test
+    public void loadsTheDataset() {
+        assertEquals(41, dataset.size());
+        Address address = dataset.nearest(42.6248, -71.3680).get();
+        assertEquals("66-4 Parkhurst Rd", address.getAddress());
+        assertEquals("Chelmsford", address.getCity());
+        assertEquals("MA", address.getState());
+        assertEquals("01824", address.getZip());
+    }
+
+    @Test
+    public void answersTheSameAddressForTheSameLocation() {
+        Address first = dataset.nearest(33.5, -86.8).get();
+        for (int i = 0; i < 10; i++) {
+            assertSame(first, dataset.nearest(33.5, -86.8).get());
+        }
+        assertEquals("Vestavia Hills", first.getCity());
+    }
+
+    @Test
+    public void findsTheNearestAddress() {
+        Random random = new Random(42);
+        double[][] coordinates = new double[5_000][];
+        AddressIndex.Builder builder = new AddressIndex.Builder();
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = new double[]{random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180};
+            builder.add(coordinates[i][0], coordinates[i][1], address(i));
+        }
+        AddressIndex index = builder.build();
+
+        for (int i = 0; i < 2_000; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lon = random.nextDouble() * 360 - 180;
+            int expected = 0;
+            for (int j = 1; j < coordinates.length; j++) {
+                if (greatCircle(lat, lon, coordinates[j]) < greatCircle(lat, lon, coordinates[expected])) {
+                    expected = j;
+                }
+            }
+            assertEquals(address(expected).getAddress(), index.nearest(lat, lon).get().getAddress());
+        }
+    }
+
+    @Test
+    public void findsTheNearestAddressAcrossTheAntimeridian() {
+        AddressIndex index = new AddressIndex.Builder()
+                .add(-17.7, 179.9, address(0))
+                .add(-17.7, 170.0, address(1))
+                .add(-17.7, -170.0, address(2))
+                .build();
+
+        assertEquals(address(0).getAddress(), index.nearest(-17.7, -179.9).get().getAddress());
+    }
+
+    @Test
+    public void answersNothingWithoutAddresses() {
+        assertFalse(new AddressIndex.Builder().build().nearest(0, 0).isPresent());
+    }
+
+    private static Address address(int i) {
+        return new Address(i + " Main St", "Springfield", "IL", "62701");
+    }
+
+    private static double greatCircle(double lat, double lon, double[] to) {
+        double phi1 = Math.toRadians(lat);
+        double phi2 = Math.toRadians(to[0]);
+        double dLambda = Math.toRadians(to[1] - lon);
+        return Math.acos(Math.min(1, Math.sin(phi1) * Math.sin(phi2)
+                + Math.cos(phi1) * Math.cos(phi2) * Math.cos(dLambda)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.udacity.boogle.maps;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MockAddressRepositoryTests {
+
+    @Test
+    public void parsesStreetCityStateAndZip() {
+        Address address = MockAddressRepository.parse("1300 Montgomery Highway, Vestavia Hills AL 35216");
+        assertEquals("1300 Montgomery Highway", address.getAddress());
+        assertEquals("Vestavia Hills", address.getCity());
+        assertEquals("AL", address.getState());
+        assertEquals("35216", address.getZip());
+    }
+
+    @Test
+    public void answersAddressesOfTheTable() {
+        Set<String> streets = Arrays.stream(MockAddressRepository.ADDRESSES)
+                .map(address -> address.split(",")[0])
+                .collect(Collectors.toSet());
+        for (int i = 0; i < 1_000; i++) {
+            Address address = MockAddressRepository.getRandom();
+            assertTrue(streets.contains(address.getAddress()));
+            assertTrue(address.getState(), address.getState().matches("[A-Z]{2}"));
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -49,6 +50,7 @@ import java.util.stream.LongStream;
  *
  */
 @SpringBootApplication
+@EnableScheduling
 public class PricingServiceApplication {
 
     public static void main(String[] args) {
@@ -61,16 +63,13 @@ public class PricingServiceApplication {
      * API project (VehiclesAPIApplication) and the code that
      * was originally in the Pricing Service which was eliminated
      * with the creation of a Microservice.
-     * @param repository where the price information persists.
+     * @param repository where the price information persists, along with
+     *   its history.
      * @return the
      */
     @Bean
     CommandLineRunner initDatabase(PriceRepository repository) {
-        return args -> {
-            for (Price price : PRICES.values()){
-                repository.save(price);
-            }
-        };
+        return args -> repository.saveAll(PRICES.values());
     }
 
     /**
@@ -0,0 +1,30 @@
+package com.udacity.pricing.config;
+
+import com.udacity.pricing.domain.price.event.PriceChangedEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.jms.support.converter.MessageType;
+
+import java.util.Collections;
+
+@Configuration
+public class JmsConfig {
+
+    /**
+     * Writes price events as JSON text messages tagged with a type id
+     * rather than a class name, so consumers can map them to their own class.
+     */
+    @Bean
+    public MessageConverter jacksonJmsMessageConverter() {
+
+        var converter = new MappingJackson2MessageConverter();
+        converter.setTargetType(MessageType.TEXT);
+        converter.setTypeIdPropertyName("_type");
+        converter.setTypeIdMappings(Collections.singletonMap(PriceChangedEvent.TYPE_ID, PriceChangedEvent.class));
+
+        return converter;
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.udacity.pricing.domain.currency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Converts amounts between currencies at the rates of an exchange rate file.
+ *
+ * The file gives, for each currency, the units of it that one unit of a
+ * common base currency buys, e.g. `USD=1` and `EUR=0.92`.  It is read into
+ * a snapshot holding the rate between every pair of its currencies and the
+ * ISO 4217 minor units of each, so a conversion is two map lookups, one
+ * multiplication and one rounding, and allocates only the result.
+ *
+ * The file is read again every `prices.fx.refresh-interval` milliseconds.
+ * Each reading replaces the whole snapshot at once, so a conversion never
+ * mixes rates from two readings; a file that cannot be read leaves the
+ * previous rates in place.
+ */
+@Component
+public class ExchangeRates {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRates.class);
+
+    /**
+     * Significant digits of the rate between two currencies; few enough that
+     * a price times a rate still fits in a long, which spares a conversion
+     * the BigInteger arithmetic.
+     */
+    private static final MathContext CROSS_RATE = new MathContext(10, RoundingMode.HALF_EVEN);
+
+    private final Resource source;
+    private volatile Snapshot snapshot;
+
+    public ExchangeRates(@Value("${prices.fx.rates:classpath:fx-rates.properties}") Resource source)
+            throws IOException {
+        this.source = source;
+        this.snapshot = Snapshot.read(source);
+    }
+
+    /**
+     * Reads the exchange rate file again.
+     */
+    @Scheduled(initialDelayString = "${prices.fx.refresh-interval:3600000}",
+               fixedDelayString = "${prices.fx.refresh-interval:3600000}")
+    public void refresh() {
+        try {
+            snapshot = Snapshot.read(source);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Could not read exchange rates from {}, keeping the previous rates", source, e);
+        }
+    }
+
+    /**
+     * @param currency an ISO 4217 currency code
+     * @return whether amounts can be converted to and from the currency
+     */
+    public boolean supports(String currency) {
+        return snapshot.index.containsKey(currency);
+    }
+
+    /**
+     * Converts an amount, rounded to the minor units of the target currency.
+     * @param amount the amount to convert
+     * @param from the ISO 4217 code of the currency of the amount
+     * @param to the ISO 4217 code of the currency to convert to
+     * @return the amount in the target currency
+     * @throws UnknownCurrencyException if either currency has no rate
+     */
+    public BigDecimal convert(BigDecimal amount, String from, String to) {
+        Snapshot rates = snapshot;
+        int i = rates.indexOf(from);
+        int j = rates.indexOf(to);
+        int digits = rates.minorUnits[j];
+        if (digits < 0) {
+            // no minor unit, such as gold: keep the significant digits
+            return amount.multiply(rates.cross[i][j], MathContext.DECIMAL64);
+        }
+        if (i == j) {
+            return amount.setScale(digits, RoundingMode.HALF_EVEN);
+        }
+        return amount.multiply(rates.cross[i][j]).setScale(digits, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * The rates of one reading of the exchange rate file.
+     */
+    private static final class Snapshot {
+
+        private final Map<String, Integer> index;
+        private final BigDecimal[][] cross;
+        private final int[] minorUnits;
+
+        private Snapshot(Map<String, Integer> index, BigDecimal[][] cross, int[] minorUnits) {
+            this.index = index;
+            this.cross = cross;
+            this.minorUnits = minorUnits;
+        }
+
+        static Snapshot read(Resource source) throws IOException {
+            Properties properties = PropertiesLoaderUtils.loadProperties(source);
+            int size = properties.size();
+            Map<String, Integer> index = new HashMap<>(size * 2);
+            BigDecimal[] rates = new BigDecimal[size];
+            int[] minorUnits = new int[size];
+            for (String code : properties.stringPropertyNames()) {
+                CurrencyCode currency = CurrencyCode.find(code);
+                if (currency == null) {
+                    throw new IllegalArgumentException(code + " is not an ISO 4217 currency code");
+                }
+                BigDecimal rate = new BigDecimal(properties.getProperty(code).trim());
+                if (rate.signum() <= 0) {
+                    throw new IllegalArgumentException("Exchange rate of " + code + " is not positive");
+                }
+                int i = index.size();
+                index.put(code, i);
+                rates[i] = rate;
+                minorUnits[i] = currency.getMinorUnits();
+            }
+
+            // from i to j: divide by the rate of i to get the base, multiply by the rate of j
+            BigDecimal[][] cross = new BigDecimal[size][size];
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    cross[i][j] = rates[j].divide(rates[i], CROSS_RATE);
+                }
+            }
+            return new Snapshot(index, cross, minorUnits);
+        }
+
+        int indexOf(String currency) {
+            Integer i = index.get(currency);
+            if (i == null) {
+                throw new UnknownCurrencyException(currency);
+            }
+            return i;
+        }
+    }
+}
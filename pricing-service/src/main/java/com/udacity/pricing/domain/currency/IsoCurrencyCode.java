@@ -0,0 +1,29 @@
+package com.udacity.pricing.domain.currency;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * The annotated string must be an ISO 4217 currency code, see
+ * {@link CurrencyCode}.  Null is valid; add @NotBlank to require a code.
+ */
+@Documented
+@Constraint(validatedBy = IsoCurrencyCodeValidator.class)
+@Target({FIELD, METHOD, PARAMETER})
+@Retention(RUNTIME)
+public @interface IsoCurrencyCode {
+
+    String message() default "currency.code.invalid";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
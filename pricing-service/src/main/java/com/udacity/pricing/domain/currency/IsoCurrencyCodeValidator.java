@@ -0,0 +1,15 @@
+package com.udacity.pricing.domain.currency;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Checks that a string is an ISO 4217 currency code.
+ */
+public class IsoCurrencyCodeValidator implements ConstraintValidator<IsoCurrencyCode, String> {
+
+    @Override
+    public boolean isValid(String value, ConstraintValidatorContext context) {
+        return value == null || CurrencyCode.find(value) != null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.udacity.pricing.domain.currency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an amount is to be converted to or from a currency without
+ * an exchange rate.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownCurrencyException extends RuntimeException {
+
+    private final String currency;
+
+    public UnknownCurrencyException(String currency) {
+        super("No exchange rate for currency " + currency);
+        this.currency = currency;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+}
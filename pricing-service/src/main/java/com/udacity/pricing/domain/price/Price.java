@@ -3,9 +3,11 @@ package com.udacity.pricing.domain.price;
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
-import javax.validation.constraints.Pattern;
 import java.math.BigDecimal;
+import java.util.Objects;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.udacity.pricing.domain.currency.IsoCurrencyCode;
 
 /**
  * Represents the price of a given vehicle, including currency.
@@ -13,11 +15,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 @Entity
 public class Price {
 
-    private static final String CODES = "AED|AFN|ALL|AMD|ANG|AOA|ARS|AUD|AWG|AZN|BAM|BBD|BDT|BGN|BHD|BIF|BMD|BND|BOB|BOV|BRL|BSD|BTN|BWP|BYN|BZD|CAD|CDF|CHE|CHF|CHW|CLF|CLP|CNY|COP|COU|CRC|CUC|CUP|CVE|CZK|DJF|DKK|DOP|DZD|EGP|ERN|ETB|EUR|FJD|FKP|GBP|GEL|GHS|GIP|GMD|GNF|GTQ|GYD|HKD|HNL|HRK|HTG|HUF|IDR|ILS|INR|IQD|IRR|ISK|JMD|JOD|JPY|KES|KGS|KHR|KMF|KPW|KRW|KWD|KYD|KZT|LAK|LBP|LKR|LRD|LSL|LYD|MAD|MDL|MGA|MKD|MMK|MNT|MOP|MRU|MUR|MVR|MWK|MXN|MXV|MYR|MZN|NAD|NGN|NIO|NOK|NPR|NZD|OMR|PAB|PEN|PGK|PHP|PKR|PLN|PYG|QAR|RON|RSD|RUB|RWF|SAR|SBD|SCR|SDG|SEK|SGD|SHP|SLL|SOS|SRD|SSP|STN|SVC|SYP|SZL|THB|TJS|TMT|TND|TOP|TRY|TTD|TWD|TZS|UAH|UGX|USD|USN|UYI|UYU|UYW|UZS|VES|VND|VUV|WST|XAF|XAG|XAU";
-
     // Validate for global currency codes (https://en.wikipedia.org/wiki/ISO_4217)
-    @Pattern(message = "currency.code.invalid",
-             regexp = CODES)
+    @IsoCurrencyCode(message = "currency.code.invalid")
     @NotBlank(message = "currency.code.required")
     private String currency;
 
@@ -29,10 +28,26 @@ public class Price {
     @JsonProperty("vehicle_id")
     private Long vehicleId;
 
+    // Ids are handed out by the sequence in blocks, so a batch of new
+    // prices can be inserted without fetching each id separately.
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_id")
+    @SequenceGenerator(name = "price_id", sequenceName = "price_id_seq", allocationSize = 50)
     private Long id;
 
+    // The price as read from the database, before any update is applied.
+    @Transient
+    @JsonIgnore
+    private Long loadedVehicleId;
+
+    @Transient
+    @JsonIgnore
+    private String loadedCurrency;
+
+    @Transient
+    @JsonIgnore
+    private BigDecimal loadedPrice;
+
     public Price() {
     }
 
@@ -74,6 +89,31 @@ public class Price {
         this.id = id;
     }
 
+    @JsonIgnore
+    public Long getLoadedVehicleId() {
+        return loadedVehicleId;
+    }
+
+    /**
+     * @return whether the vehicle, currency or amount differ from the stored
+     *   price this one was read as; a price never read counts as changed
+     */
+    @JsonIgnore
+    public boolean isChangedSinceLoad() {
+        return loadedVehicleId == null
+                || !loadedVehicleId.equals(vehicleId)
+                || !Objects.equals(loadedCurrency, currency)
+                || loadedPrice == null || price == null
+                || loadedPrice.compareTo(price) != 0;
+    }
+
+    @PostLoad
+    void rememberLoadedState() {
+        loadedVehicleId = vehicleId;
+        loadedCurrency = currency;
+        loadedPrice = price;
+    }
+
     /**
      * Added explicit get method for price id to expose the id to the API.
      * Without this addition the id is not included.
@@ -0,0 +1,66 @@
+package com.udacity.pricing.domain.price;
+
+import com.udacity.pricing.domain.currency.ExchangeRates;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.ResourceProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Answers price lookups in another currency when asked with a `currency`
+ * parameter, e.g. GET /prices/search/findByVehicleId?vehicle_id=1&currency=EUR.
+ * The stored price is left as it is; the response carries a converted copy.
+ */
+@Component
+public class PriceCurrencyProcessor implements ResourceProcessor<Resource<Price>> {
+
+    static final String PARAMETER = "currency";
+
+    private final ExchangeRates rates;
+
+    public PriceCurrencyProcessor(ExchangeRates rates) {
+        this.rates = rates;
+    }
+
+    @Override
+    public Resource<Price> process(Resource<Price> resource) {
+        String currency = requestedCurrency();
+        Price price = resource.getContent();
+        if (currency == null || currency.equals(price.getCurrency())) {
+            return resource;
+        }
+
+        Price converted = new Price(currency, rates.convert(price.getPrice(), price.getCurrency(), currency),
+                price.getVehicleId());
+        converted.setId(price.getId());
+        Object original = resource;
+        if (original instanceof PersistentEntityResource) {
+            // keeps the representation Spring Data REST writes for entities
+            PersistentEntityResource entity = (PersistentEntityResource) original;
+            Object copy = PersistentEntityResource.build(converted, entity.getPersistentEntity())
+                    .withLinks(entity.getLinks())
+                    .build();
+            @SuppressWarnings("unchecked")
+            Resource<Price> result = (Resource<Price>) copy;
+            return result;
+        }
+        return new Resource<>(converted, resource.getLinks());
+    }
+
+    /**
+     * @return the currency asked for by the GET request being answered, if any
+     */
+    private static String requestedCurrency() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        return "GET".equals(request.getMethod()) ? request.getParameter(PARAMETER) : null;
+    }
+}
@@ -1,9 +1,20 @@
 package com.udacity.pricing.domain.price;
 
+import com.udacity.pricing.domain.price.history.PriceHistoryRecorder;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
-public interface PriceRepository extends CrudRepository<Price, Long> {
+import java.util.List;
+
+public interface PriceRepository extends CrudRepository<Price, Long>, PriceHistoryRecorder {
 
     Price findByVehicleId(@Param("vehicle_id") Long vehicleId);
+
+    /**
+     * Finds the prices of several vehicles with a single query.
+     * Exposed as /prices/search/findByVehicleIdIn?vehicle_ids=1&vehicle_ids=2
+     * @param vehicleIds ID numbers of the vehicles to price
+     * @return the prices found, vehicles without a price are left out
+     */
+    List<Price> findByVehicleIdIn(@Param("vehicle_ids") Long[] vehicleIds);
 }
@@ -0,0 +1,42 @@
+package com.udacity.pricing.domain.price.batch;
+
+import com.udacity.pricing.domain.price.Price;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Exposes batch writes next to the price endpoints generated by Spring Data REST.
+ */
+@RestController
+public class PriceBatchController {
+
+    private final PriceBatchService service;
+    private final int maxSize;
+
+    public PriceBatchController(PriceBatchService service,
+                                @Value("${prices.batch.max-size:10000}") int maxSize) {
+        this.service = service;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates or updates the prices of many vehicles, matched by vehicle id.
+     * Invalid rows are rejected one by one; the others are written.
+     * @param prices the prices to write, at most one per vehicle
+     * @return what was done with each row, in the order of the rows
+     */
+    @PutMapping("/prices/batch")
+    public List<PriceBatchResult> write(@RequestBody List<Price> prices) {
+        if (prices.size() > maxSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + maxSize + " prices can be written at once");
+        }
+        return service.write(prices);
+    }
+}
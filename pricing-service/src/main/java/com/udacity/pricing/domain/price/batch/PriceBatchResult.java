@@ -0,0 +1,88 @@
+package com.udacity.pricing.domain.price.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Reports what a batch write did with one of its rows.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class PriceBatchResult {
+
+    public enum Status {
+        /** A price was created for the vehicle. */
+        CREATED,
+        /** The price of the vehicle was changed. */
+        UPDATED,
+        /** The vehicle already had this price. */
+        UNCHANGED,
+        /** The row was invalid and nothing was written for it. */
+        REJECTED
+    }
+
+    private final int row;
+    private final Long vehicleId;
+    private final Long priceId;
+    private final Status status;
+    private final List<Error> errors;
+
+    PriceBatchResult(int row, Long vehicleId, Long priceId, Status status, List<Error> errors) {
+        this.row = row;
+        this.vehicleId = vehicleId;
+        this.priceId = priceId;
+        this.status = status;
+        this.errors = errors;
+    }
+
+    /**
+     * @return the position of the row in the batch, starting at 0
+     */
+    public int getRow() {
+        return row;
+    }
+
+    @JsonProperty("vehicle_id")
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    @JsonProperty("price_id")
+    public Long getPriceId() {
+        return priceId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return why the row was rejected, empty otherwise
+     */
+    public List<Error> getErrors() {
+        return errors;
+    }
+
+    /**
+     * A validation error, written like the errors of the single price endpoints.
+     */
+    public static class Error {
+
+        private final String code;
+        private final String message;
+
+        Error(String code, String message) {
+            this.code = code;
+            this.message = message;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.udacity.pricing.domain.price.batch;
+
+import com.udacity.pricing.domain.price.Price;
+import com.udacity.pricing.domain.price.PriceRepository;
+import com.udacity.pricing.domain.price.batch.PriceBatchResult.Status;
+import com.udacity.pricing.domain.price.event.PriceEventHandler;
+import com.udacity.pricing.domain.price.history.PriceHistory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the prices of many vehicles at once, such as a nightly repricing.
+ *
+ * Every row is validated first, in a single pass, and the invalid rows are
+ * reported without being written.  The other rows are then written in one
+ * transaction, `prices.batch.chunk-size` at a time: the stored prices of a
+ * chunk are read with one query, new prices are created and changed ones
+ * updated, and the inserts and updates are sent to the database as JDBC
+ * batches before the persistence context is cleared.  Price ids come from
+ * a sequence handing out blocks of ids, so creating a price does not cost
+ * a round trip of its own.  Each created or updated price is appended
+ * to the price history in the same batches.
+ *
+ * Once the transaction commits, a price change is published for every
+ * created or updated price.
+ */
+@Service
+public class PriceBatchService {
+
+    static final String REPEATED = "vehicle_id.repeated";
+
+    private final EntityManager entityManager;
+    private final PriceRepository repository;
+    private final Validator validator;
+    private final MessageSource messages;
+    private final PriceEventHandler events;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+
+    public PriceBatchService(EntityManager entityManager,
+                             PriceRepository repository,
+                             Validator validator,
+                             MessageSource messages,
+                             PriceEventHandler events,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${prices.batch.chunk-size:500}") int chunkSize) {
+        this.entityManager = entityManager;
+        this.repository = repository;
+        this.validator = validator;
+        this.messages = messages;
+        this.events = events;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates or updates the price of each vehicle in the batch.
+     * @param prices the prices to write, at most one per vehicle
+     * @return what was done with each row, in the order of the rows
+     */
+    public List<PriceBatchResult> write(List<Price> prices) {
+        PriceBatchResult[] results = new PriceBatchResult[prices.size()];
+        List<Integer> valid = validate(prices, results);
+
+        Instant now = Instant.now();
+        List<PriceBatchResult> written = transaction.execute(status -> {
+            List<PriceBatchResult> chunkResults = new ArrayList<>(valid.size());
+            for (int from = 0; from < valid.size(); from += chunkSize) {
+                List<Integer> chunk = valid.subList(from, Math.min(from + chunkSize, valid.size()));
+                chunkResults.addAll(writeChunk(prices, chunk, now));
+            }
+            return chunkResults;
+        });
+
+        for (PriceBatchResult result : written) {
+            results[result.getRow()] = result;
+            if (result.getStatus() != Status.UNCHANGED) {
+                events.publish(result.getVehicleId());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Checks every row, recording the invalid ones in the results.
+     * @return the positions of the valid rows
+     */
+    private List<Integer> validate(List<Price> prices, PriceBatchResult[] results) {
+        List<Integer> valid = new ArrayList<>(prices.size());
+        Set<Long> vehicleIds = new HashSet<>();
+        for (int row = 0; row < prices.size(); row++) {
+            Price price = prices.get(row);
+            SortedSet<String> codes = new TreeSet<>();
+            if (price == null) {
+                codes.add("web.invalid_or_missing_body");
+            } else {
+                for (ConstraintViolation<Price> violation : validator.validate(price)) {
+                    codes.add(violation.getMessageTemplate());
+                }
+                if (price.getVehicleId() != null && !vehicleIds.add(price.getVehicleId())) {
+                    codes.add(REPEATED);
+                }
+            }
+
+            if (codes.isEmpty()) {
+                valid.add(row);
+            } else {
+                Locale locale = LocaleContextHolder.getLocale();
+                List<PriceBatchResult.Error> errors = codes.stream()
+                        .map(code -> new PriceBatchResult.Error(code, messages.getMessage(code, null, locale)))
+                        .collect(Collectors.toList());
+                results[row] = new PriceBatchResult(row, price == null ? null : price.getVehicleId(), null,
+                        Status.REJECTED, errors);
+            }
+        }
+        return valid;
+    }
+
+    private List<PriceBatchResult> writeChunk(List<Price> prices, List<Integer> rows, Instant now) {
+        Long[] vehicleIds = rows.stream().map(row -> prices.get(row).getVehicleId()).toArray(Long[]::new);
+        Map<Long, Price> stored = repository.findByVehicleIdIn(vehicleIds).stream()
+                .collect(Collectors.toMap(Price::getVehicleId, Function.identity()));
+
+        List<PriceBatchResult> results = new ArrayList<>(rows.size());
+        for (int row : rows) {
+            Price price = prices.get(row);
+            Price current = stored.get(price.getVehicleId());
+            Status status;
+            if (current == null) {
+                current = new Price(price.getCurrency(), price.getPrice(), price.getVehicleId());
+                entityManager.persist(current);
+                status = Status.CREATED;
+            } else if (current.getCurrency().equals(price.getCurrency())
+                    && current.getPrice().compareTo(price.getPrice()) == 0) {
+                status = Status.UNCHANGED;
+            } else {
+                current.setCurrency(price.getCurrency());
+                current.setPrice(price.getPrice());
+                status = Status.UPDATED;
+            }
+            if (status != Status.UNCHANGED) {
+                entityManager.persist(PriceHistory.of(current, now));
+            }
+            results.add(new PriceBatchResult(row, current.getVehicleId(), current.getId(), status,
+                    Collections.emptyList()));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return results;
+    }
+}
@@ -0,0 +1,33 @@
+package com.udacity.pricing.domain.price.event;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Announces that the price of a vehicle was created, changed or deleted
+ * so that services caching prices can evict their copy.
+ */
+public class PriceChangedEvent {
+
+    /**
+     * Type id written with each message so consumers can map it to their own class.
+     */
+    public static final String TYPE_ID = "PriceChanged";
+
+    @JsonProperty("vehicle_id")
+    private Long vehicleId;
+
+    public PriceChangedEvent() {
+    }
+
+    public PriceChangedEvent(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+}
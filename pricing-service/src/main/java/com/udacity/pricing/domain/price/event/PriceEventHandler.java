@@ -0,0 +1,70 @@
+package com.udacity.pricing.domain.price.event;
+
+import com.udacity.pricing.domain.price.Price;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Publishes a PriceChangedEvent whenever a price is written through the REST API.
+ * Publishing is best effort: a broker outage is logged and never fails the request,
+ * consumers fall back on their cache expiry.
+ */
+@Component
+@RepositoryEventHandler(Price.class)
+public class PriceEventHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceEventHandler.class);
+
+    private final JmsTemplate jmsTemplate;
+    private final String destination;
+
+    public PriceEventHandler(JmsTemplate jmsTemplate,
+                             @Value("${prices.events.destination:price.changes}") String destination) {
+        this.jmsTemplate = jmsTemplate;
+        this.destination = destination;
+    }
+
+    @HandleAfterCreate
+    public void afterCreate(Price price) {
+        publish(price.getVehicleId());
+    }
+
+    /**
+     * A PATCH may move a price to another vehicle, in which case
+     * the vehicle that lost the price is announced as well.
+     */
+    @HandleAfterSave
+    public void afterSave(Price price) {
+        publish(price.getVehicleId());
+        if (price.getLoadedVehicleId() != null && !Objects.equals(price.getLoadedVehicleId(), price.getVehicleId())) {
+            publish(price.getLoadedVehicleId());
+        }
+    }
+
+    @HandleAfterDelete
+    public void afterDelete(Price price) {
+        publish(price.getVehicleId());
+    }
+
+    /**
+     * Announces a price change for a vehicle.
+     * @param vehicleId ID number of the vehicle whose price changed
+     */
+    public void publish(Long vehicleId) {
+        try {
+            jmsTemplate.convertAndSend(destination, new PriceChangedEvent(vehicleId));
+        } catch (JmsException e) {
+            log.warn("Could not publish price change for vehicle {}", vehicleId, e);
+        }
+    }
+}
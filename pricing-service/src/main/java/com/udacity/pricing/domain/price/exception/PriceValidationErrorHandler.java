@@ -1,7 +1,9 @@
 package com.udacity.pricing.domain.price.exception;
 
+import com.udacity.pricing.domain.currency.UnknownCurrencyException;
 import me.alidg.errors.HandledException;
 import me.alidg.errors.WebErrorHandler;
+import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -9,7 +11,8 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -17,7 +20,7 @@ public class PriceValidationErrorHandler implements WebErrorHandler {
 
     @Override
     public boolean canHandle(Throwable t) {
-        boolean result = (t instanceof DataIntegrityViolationException);
+        boolean result = (t instanceof DataIntegrityViolationException) || (t instanceof UnknownCurrencyException);
         while (!result && (t != null) && !(t instanceof ConstraintViolationException)) {
             t = t.getCause();
         }
@@ -31,23 +34,22 @@ public class PriceValidationErrorHandler implements WebErrorHandler {
     @Override
     public HandledException handle(Throwable t) {
 
-        Set codes = new HashSet<String>();
+        // sorted, so the codes of several violations always come in the same order
+        Set<String> codes = new TreeSet<>();
+
+        if (t instanceof UnknownCurrencyException) {
+            codes.add("currency.rate.unavailable");
+            return new HandledException(codes, HttpStatus.BAD_REQUEST, null);
+        }
 
         while ((t != null) && !(t instanceof ConstraintViolationException) && !(t instanceof DataIntegrityViolationException)) {
             t = t.getCause();
         }
-        // @TODO remove constant code strings
         if (t instanceof ConstraintViolationException) {
-            List keys = new ArrayList<String>();
-            keys.add("currency.code.invalid");
-            keys.add("currency.code.required");
-            keys.add("price.required");
-            keys.add("vehicle_id.required");
+            // The message of each constraint on Price is its error code.
             // There can be multiple constraint violations, so collect them all.
-            for (int i = 0; i < keys.size(); i++) {
-                if (t.getMessage().contains((CharSequence) keys.get(i))){
-                    codes.add(keys.get(i));
-                }
+            for (ConstraintViolation<?> violation : ((ConstraintViolationException) t).getConstraintViolations()) {
+                codes.add(violation.getMessageTemplate());
             }
         }
         else if (t instanceof DataIntegrityViolationException) {
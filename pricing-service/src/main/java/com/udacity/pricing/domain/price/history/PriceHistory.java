@@ -0,0 +1,94 @@
+package com.udacity.pricing.domain.price.history;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.udacity.pricing.domain.price.Price;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One entry of the append-only history of vehicle prices: the price a
+ * vehicle had from a point in time until the next entry of that vehicle.
+ * An entry without a price records that the price was deleted.
+ *
+ * Entries are ordered by vehicle and time in the `price_history_as_of`
+ * index, latest first, so the price of a vehicle at any time is the first
+ * index entry at or before that time.  The current prices stay in the
+ * price table, one row per vehicle.
+ */
+@Entity
+@Immutable
+@Table(name = "price_history", indexes = {
+        @Index(name = "price_history_as_of", columnList = "vehicleId, effectiveAt desc, id desc")
+})
+public class PriceHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "price_history_id")
+    @SequenceGenerator(name = "price_history_id", sequenceName = "price_history_id_seq", allocationSize = 50)
+    @JsonIgnore
+    private Long id;
+
+    @Column(nullable = false)
+    @JsonProperty("vehicle_id")
+    private Long vehicleId;
+
+    private String currency;
+
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    @JsonProperty("effective_at")
+    private Instant effectiveAt;
+
+    protected PriceHistory() {
+    }
+
+    public PriceHistory(Long vehicleId, String currency, BigDecimal price, Instant effectiveAt) {
+        this.vehicleId = vehicleId;
+        this.currency = currency;
+        this.price = price;
+        this.effectiveAt = effectiveAt;
+    }
+
+    /**
+     * @param price the price set for a vehicle
+     * @param effectiveAt when it was set
+     * @return the entry recording it
+     */
+    public static PriceHistory of(Price price, Instant effectiveAt) {
+        return new PriceHistory(price.getVehicleId(), price.getCurrency(), price.getPrice(), effectiveAt);
+    }
+
+    /**
+     * @param vehicleId ID number of the vehicle whose price was deleted
+     * @param effectiveAt when it was deleted
+     * @return the entry recording it
+     */
+    public static PriceHistory removed(Long vehicleId, Instant effectiveAt) {
+        return new PriceHistory(vehicleId, null, null, effectiveAt);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Instant getEffectiveAt() {
+        return effectiveAt;
+    }
+}
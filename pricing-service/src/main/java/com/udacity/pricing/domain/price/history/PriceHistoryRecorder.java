@@ -0,0 +1,27 @@
+package com.udacity.pricing.domain.price.history;
+
+import com.udacity.pricing.domain.price.Price;
+
+/**
+ * The writes of the price repository, each of which appends to the price
+ * history in the same transaction as the price itself.  A committed price
+ * therefore always has its entry, and a write that rolls back leaves none
+ * behind.  Writes that leave a price as it was add no entry, as in a batch.
+ *
+ * These writes replace the ones of the price repository, so prices saved
+ * or deleted through the REST API or by the application are all recorded.
+ */
+public interface PriceHistoryRecorder {
+
+    <S extends Price> S save(S price);
+
+    <S extends Price> Iterable<S> saveAll(Iterable<S> prices);
+
+    void delete(Price price);
+
+    void deleteById(Long id);
+
+    void deleteAll(Iterable<? extends Price> prices);
+
+    void deleteAll();
+}
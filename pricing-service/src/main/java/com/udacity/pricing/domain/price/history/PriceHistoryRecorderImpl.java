@@ -0,0 +1,102 @@
+package com.udacity.pricing.domain.price.history;
+
+import com.udacity.pricing.domain.price.Price;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes prices and their history entries with the same entity manager,
+ * so both are flushed and committed together.
+ */
+@Transactional
+class PriceHistoryRecorderImpl implements PriceHistoryRecorder {
+
+    private final EntityManager entityManager;
+
+    PriceHistoryRecorderImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public <S extends Price> S save(S price) {
+        return write(price, Instant.now());
+    }
+
+    @Override
+    public <S extends Price> Iterable<S> saveAll(Iterable<S> prices) {
+        Instant now = Instant.now();
+        List<S> saved = new ArrayList<>();
+        for (S price : prices) {
+            saved.add(write(price, now));
+        }
+        return saved;
+    }
+
+    @Override
+    public void delete(Price price) {
+        remove(price, Instant.now());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        Price stored = entityManager.find(Price.class, id);
+        if (stored == null) {
+            throw new EmptyResultDataAccessException(
+                    String.format("No %s entity with id %s exists!", Price.class, id), 1);
+        }
+        delete(stored);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Price> prices) {
+        Instant now = Instant.now();
+        for (Price price : prices) {
+            remove(price, now);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        deleteAll(entityManager.createQuery("select p from Price p", Price.class).getResultList());
+    }
+
+    /**
+     * Deletes the price, if it still exists, and records its vehicle as
+     * having none.
+     */
+    private void remove(Price price, Instant now) {
+        Price stored = entityManager.contains(price) ? price : entityManager.find(Price.class, price.getId());
+        if (stored == null) {
+            return;
+        }
+        entityManager.remove(stored);
+        entityManager.persist(PriceHistory.removed(stored.getVehicleId(), now));
+    }
+
+    /**
+     * Creates or updates the price and, unless it is unchanged, records it.
+     * A price moved to another vehicle also records the vehicle that lost it
+     * as having none.
+     */
+    private <S extends Price> S write(S price, Instant now) {
+        if (price.getId() == null) {
+            entityManager.persist(price);
+            entityManager.persist(PriceHistory.of(price, now));
+            return price;
+        }
+        S stored = entityManager.merge(price);
+        if (stored.isChangedSinceLoad()) {
+            entityManager.persist(PriceHistory.of(stored, now));
+            Long previous = stored.getLoadedVehicleId();
+            if (previous != null && !previous.equals(stored.getVehicleId())) {
+                entityManager.persist(PriceHistory.removed(previous, now));
+            }
+        }
+        return stored;
+    }
+}
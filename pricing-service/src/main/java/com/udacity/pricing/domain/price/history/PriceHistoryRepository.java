@@ -0,0 +1,58 @@
+package com.udacity.pricing.domain.price.history;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Appends to and reads the price history.  Entries are never changed or
+ * deleted, so only reads are exposed, at /price-history.
+ */
+@RepositoryRestResource(path = "price-history", collectionResourceRel = "history", itemResourceRel = "history")
+public interface PriceHistoryRepository extends Repository<PriceHistory, Long> {
+
+    @RestResource(exported = false)
+    <S extends PriceHistory> S save(S entry);
+
+    @RestResource(exported = false)
+    <S extends PriceHistory> Iterable<S> saveAll(Iterable<S> entries);
+
+    Optional<PriceHistory> findById(Long id);
+
+    /**
+     * Finds the price a vehicle had at a point in time, reading a single
+     * entry of the price_history_as_of index.  Sorting by vehicle first
+     * matches the index order, which lets the database stop at that entry
+     * instead of sorting every earlier price of the vehicle.
+     * Exposed as /price-history/search/asOf?vehicle_id=1&at=2020-01-01T00:00:00Z
+     * @param vehicleId ID number of the vehicle
+     * @param at the point in time
+     * @return the latest entry at or before that time, null when the
+     *   vehicle had no price yet
+     */
+    @RestResource(path = "asOf", rel = "asOf")
+    PriceHistory findFirstByVehicleIdAndEffectiveAtLessThanEqualOrderByVehicleIdAscEffectiveAtDescIdDesc(
+            @Param("vehicle_id") Long vehicleId, @Param("at") Instant at);
+
+    /**
+     * Lists the price changes of a vehicle during a period, oldest first,
+     * from one range of the price_history_as_of index.  The price in effect
+     * at the start of the period is found with asOf.
+     * Exposed as /price-history/search/range?vehicle_id=1&from=2020-01-01T00:00:00Z&to=2020-02-01T00:00:00Z
+     * @param vehicleId ID number of the vehicle
+     * @param from the start of the period, included
+     * @param to the end of the period, excluded
+     * @param pageable the page of changes to return
+     * @return the entries of the period
+     */
+    @RestResource(path = "range", rel = "range")
+    Page<PriceHistory> findByVehicleIdAndEffectiveAtGreaterThanEqualAndEffectiveAtLessThanOrderByEffectiveAtAscIdAsc(
+            @Param("vehicle_id") Long vehicleId, @Param("from") Instant from, @Param("to") Instant to,
+            Pageable pageable);
+}
@@ -27,6 +27,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
@@ -178,6 +179,115 @@ public class PricingServiceApplicationTests {
 
 	}
 
+	@Test
+	@DisplayName("Find the prices of several vehicles at once")
+	public void testFindPrices() throws Exception{
+
+		int vehicleIdStart = 40;
+		int vehicleIdEnd = 45;
+
+		// insert new prices
+		for (int i = vehicleIdStart; i < vehicleIdEnd; i++) {
+			int price = ThreadLocalRandom.current().nextInt(15000, 100000);
+			mockMvc.perform(post("/prices/")
+					.accept(MediaType.APPLICATION_JSON_UTF8)
+					.contentType(MediaType.APPLICATION_JSON_UTF8)
+					.content("{\"currency\":\"USD\", \"price\":\"" + price + "\", \"vehicle_id\":\"" + i + "\"}" ))
+					.andExpect(status().isCreated());
+		}
+
+		// 999 has no price and is left out of the results
+		MockHttpServletRequestBuilder query = get("/prices/search/findByVehicleIdIn")
+				.param("vehicle_ids", "41", "43", "999");
+
+		mockMvc.perform(query)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("_embedded.prices.length()").value(2))
+				.andExpect(jsonPath("_embedded.prices[?(@.vehicle_id == 41)]").exists())
+				.andExpect(jsonPath("_embedded.prices[?(@.vehicle_id == 43)]").exists());
+	}
+
+	@Test
+	@DisplayName("Find a price in another currency.")
+	public void testFindPriceInCurrency() throws Exception {
+
+		String content = mockMvc.perform(post("/prices")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content("{\"currency\":\"USD\", \"price\":\"12345.67\", \"vehicle_id\":\"800\"}"))
+				.andExpect(status().isCreated())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		int priceId = (int) new JSONObject(content).get("price_id");
+
+		mockMvc.perform(get("/prices/" + priceId).param("currency", "EUR"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("currency").value("EUR"))
+				.andExpect(jsonPath("price").value(11376.53))
+				.andExpect(jsonPath("price_id").value(priceId))
+				.andExpect(jsonPath("_links.self.href").exists());
+
+		mockMvc.perform(get("/prices/search/findByVehicleId").param("vehicle_id", "800").param("currency", "JPY"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("currency").value("JPY"))
+				.andExpect(jsonPath("price").value(1845925));
+
+		mockMvc.perform(get("/prices/search/findByVehicleIdIn").param("vehicle_ids", "800").param("currency", "EUR"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("_embedded.prices[0].currency").value("EUR"))
+				.andExpect(jsonPath("_embedded.prices[0].price").value(11376.53));
+
+		// the stored price is unchanged
+		mockMvc.perform(get("/prices/" + priceId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("currency").value("USD"))
+				.andExpect(jsonPath("price").value(12345.67));
+	}
+
+	@Test
+	@DisplayName("Create and update prices in one batch.")
+	public void testBatchWritePrices() throws Exception {
+
+		mockMvc.perform(post("/prices")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content("{\"currency\":\"USD\", \"price\":\"15000\", \"vehicle_id\":\"600\"}"))
+				.andExpect(status().isCreated());
+		mockMvc.perform(post("/prices")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content("{\"currency\":\"USD\", \"price\":\"16000\", \"vehicle_id\":\"601\"}"))
+				.andExpect(status().isCreated());
+
+		MockHttpServletRequestBuilder batch = put("/prices/batch")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content("[{\"currency\":\"USD\", \"price\":\"14500\", \"vehicle_id\":\"600\"}," +
+						"{\"currency\":\"USD\", \"price\":\"16000.00\", \"vehicle_id\":\"601\"}," +
+						"{\"currency\":\"EUR\", \"price\":\"21000\", \"vehicle_id\":\"602\"}," +
+						"{\"currency\":\"ABC\", \"price\":\"21000\", \"vehicle_id\":\"603\"}," +
+						"{\"currency\":\"EUR\", \"price\":\"22000\", \"vehicle_id\":\"602\"}]");
+
+		mockMvc.perform(batch)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(5))
+				.andExpect(jsonPath("[0].status").value("UPDATED"))
+				.andExpect(jsonPath("[1].status").value("UNCHANGED"))
+				.andExpect(jsonPath("[2].status").value("CREATED"))
+				.andExpect(jsonPath("[2].price_id").isNumber())
+				.andExpect(jsonPath("[3].status").value("REJECTED"))
+				.andExpect(jsonPath("[3].errors[0].code").value("currency.code.invalid"))
+				.andExpect(jsonPath("[4].status").value("REJECTED"))
+				.andExpect(jsonPath("[4].errors[0].code").value("vehicle_id.repeated"));
+
+		mockMvc.perform(get("/prices/search/findByVehicleIdIn").param("vehicle_ids", "600", "602", "603"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("_embedded.prices.length()").value(2))
+				.andExpect(jsonPath("_embedded.prices[?(@.vehicle_id == 600)].price").value(14500.0))
+				.andExpect(jsonPath("_embedded.prices[?(@.vehicle_id == 602)].currency").value("EUR"));
+	}
+
 	@Test
 	@DisplayName("Validate sending an invalid currency.")
 	public void testCurrencyValidation() throws Exception {
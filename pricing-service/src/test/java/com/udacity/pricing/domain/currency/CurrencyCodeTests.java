@@ -0,0 +1,46 @@
+package com.udacity.pricing.domain.currency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CurrencyCodeTests {
+
+	@Test
+	@DisplayName("Find currencies by their ISO 4217 code.")
+	public void testFind() {
+		assertSame(CurrencyCode.USD, CurrencyCode.find("USD"));
+		assertSame(CurrencyCode.AED, CurrencyCode.find("AED"));
+		assertSame(CurrencyCode.ZWL, CurrencyCode.find("ZWL"));
+		for (String code : new String[] {"ABC", "usd", "US", "USDX", "", "XTS", "XXX", "U$D", "ÜSD"}) {
+			assertNull(CurrencyCode.find(code), code);
+		}
+		assertNull(CurrencyCode.find(null));
+	}
+
+	@Test
+	@DisplayName("Give the minor units of each currency.")
+	public void testMinorUnits() {
+		assertEquals(2, CurrencyCode.EUR.getMinorUnits());
+		assertEquals(0, CurrencyCode.JPY.getMinorUnits());
+		assertEquals(3, CurrencyCode.KWD.getMinorUnits());
+		assertEquals(4, CurrencyCode.CLF.getMinorUnits());
+		assertEquals(-1, CurrencyCode.XAU.getMinorUnits());
+
+		// the same as the JDK for the currencies it knows
+		for (CurrencyCode code : CurrencyCode.values()) {
+			Currency currency = Currency.getAvailableCurrencies().stream()
+					.filter(c -> c.getCurrencyCode().equals(code.name()))
+					.findFirst()
+					.orElse(null);
+			if (currency != null) {
+				assertEquals(currency.getDefaultFractionDigits(), code.getMinorUnits(), code.name());
+			}
+		}
+	}
+}
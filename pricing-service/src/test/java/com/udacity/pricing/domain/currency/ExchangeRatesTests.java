@@ -0,0 +1,66 @@
+package com.udacity.pricing.domain.currency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExchangeRatesTests {
+
+	private ExchangeRates rates;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		rates = new ExchangeRates(new ClassPathResource("fx-rates.properties"));
+	}
+
+	@Test
+	@DisplayName("Round converted amounts to the minor units of the currency.")
+	public void testConvert() {
+		BigDecimal amount = new BigDecimal("12345.67");
+
+		assertEquals(new BigDecimal("11376.53"), rates.convert(amount, "USD", "EUR"));
+		assertEquals(new BigDecimal("1845925"), rates.convert(amount, "USD", "JPY"));
+		assertEquals(new BigDecimal("4642.219"), rates.convert(amount, "USD", "BHD"));
+		assertEquals(new BigDecimal("13397.36"), rates.convert(amount, "EUR", "USD"));
+		assertEquals(new BigDecimal("12345.67"), rates.convert(amount, "USD", "USD"));
+	}
+
+	@Test
+	@DisplayName("Refuse currencies without an exchange rate.")
+	public void testUnknownCurrency() {
+		assertFalse(rates.supports("XAU"));
+		assertThrows(UnknownCurrencyException.class, () -> rates.convert(BigDecimal.TEN, "USD", "XAU"));
+		assertThrows(UnknownCurrencyException.class, () -> rates.convert(BigDecimal.TEN, "XAU", "USD"));
+	}
+
+	@Test
+	@DisplayName("Switch to the rates read on refresh, unless they cannot be read.")
+	public void testRefresh() throws IOException {
+		Path file = Files.createTempFile("fx-rates", ".properties");
+		file.toFile().deleteOnExit();
+		Files.writeString(file, "USD=1\nEUR=0.9\n");
+		ExchangeRates fileRates = new ExchangeRates(new FileSystemResource(file));
+		assertEquals(new BigDecimal("90.00"), fileRates.convert(new BigDecimal("100"), "USD", "EUR"));
+
+		Files.writeString(file, "USD=1\nEUR=0.8\nGBP=0.75\n");
+		fileRates.refresh();
+		assertEquals(new BigDecimal("80.00"), fileRates.convert(new BigDecimal("100"), "USD", "EUR"));
+		assertTrue(fileRates.supports("GBP"));
+
+		Files.writeString(file, "USD=1\nEUR=zero\n");
+		fileRates.refresh();
+		assertEquals(new BigDecimal("80.00"), fileRates.convert(new BigDecimal("100"), "USD", "EUR"));
+	}
+}
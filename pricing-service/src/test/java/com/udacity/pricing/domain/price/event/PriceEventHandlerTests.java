@@ -0,0 +1,97 @@
+package com.udacity.pricing.domain.price.event;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PriceEventHandlerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private JmsTemplate jmsTemplate;
+
+	@Test
+	@DisplayName("Publish price changes for created, moved and deleted prices.")
+	public void testPublishPriceChanges() throws Exception {
+
+		String content = mockMvc.perform(post("/prices")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content("{\"currency\":\"USD\", \"price\":\"12000\", \"vehicle_id\":\"500\"}"))
+				.andExpect(status().isCreated())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		int priceId = (int) new JSONObject(content).get("price_id");
+		assertEquals(List.of(500L), publishedVehicleIds());
+
+		// moving the price to another vehicle announces both vehicles
+		mockMvc.perform(patch("/prices/" + priceId)
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content("{\"vehicle_id\":\"501\"}"))
+				.andExpect(status().isOk());
+		assertEquals(List.of(501L, 500L), publishedVehicleIds());
+
+		mockMvc.perform(delete("/prices/" + priceId))
+				.andExpect(status().isNoContent());
+		assertEquals(List.of(501L), publishedVehicleIds());
+	}
+
+	@Test
+	@DisplayName("Publish price changes for the prices a batch created or updated.")
+	public void testPublishBatchPriceChanges() throws Exception {
+
+		String batch = "[{\"currency\":\"USD\", \"price\":\"12000\", \"vehicle_id\":\"510\"}," +
+				"{\"currency\":\"USD\", \"price\":\"13000\", \"vehicle_id\":\"511\"}]";
+		mockMvc.perform(put("/prices/batch")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content(batch))
+				.andExpect(status().isOk());
+		assertEquals(List.of(510L, 511L), publishedVehicleIds());
+
+		// only the price that changed is announced
+		mockMvc.perform(put("/prices/batch")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content(batch.replace("13000", "13500")))
+				.andExpect(status().isOk());
+		assertEquals(List.of(511L), publishedVehicleIds());
+	}
+
+	private List<Long> publishedVehicleIds() {
+		ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+		verify(jmsTemplate, atLeastOnce()).convertAndSend(eq("price.changes"), events.capture());
+		reset(jmsTemplate);
+		return events.getAllValues().stream()
+				.map(e -> ((PriceChangedEvent) e).getVehicleId())
+				.collect(Collectors.toList());
+	}
+}
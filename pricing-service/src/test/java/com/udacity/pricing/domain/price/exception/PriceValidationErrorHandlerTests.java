@@ -0,0 +1,53 @@
+package com.udacity.pricing.domain.price.exception;
+
+import com.udacity.pricing.domain.price.Price;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionSystemException;
+
+import javax.persistence.RollbackException;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriceValidationErrorHandlerTests {
+
+	private final PriceValidationErrorHandler handler = new PriceValidationErrorHandler();
+
+	@Test
+	@DisplayName("Report the code of every constraint a price violates.")
+	public void testViolationCodes() {
+		try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+			Validator validator = factory.getValidator();
+
+			assertEquals(List.of("currency.code.invalid", "price.required", "vehicle_id.required"),
+					List.copyOf(handle(validator, new Price("XYZ", null, null))));
+			assertEquals(List.of("currency.code.required"),
+					List.copyOf(handle(validator, new Price(null, BigDecimal.TEN, 1L))));
+			assertTrue(validator.validate(new Price("ZAR", BigDecimal.TEN, 1L)).isEmpty());
+		}
+	}
+
+	@Test
+	@DisplayName("Report a duplicate vehicle id.")
+	public void testDuplicateVehicleId() {
+		assertEquals(Set.of("vehicle_id.not.unique"),
+				handler.handle(new DataIntegrityViolationException("could not execute statement")).getErrorCodes());
+	}
+
+	private Set<String> handle(Validator validator, Price price) {
+		ConstraintViolationException violations = new ConstraintViolationException(validator.validate(price));
+		Throwable commitFailure = new TransactionSystemException("Could not commit JPA transaction",
+				new RollbackException("Error while committing the transaction", violations));
+		assertTrue(handler.canHandle(commitFailure));
+		return handler.handle(commitFailure).getErrorCodes();
+	}
+}
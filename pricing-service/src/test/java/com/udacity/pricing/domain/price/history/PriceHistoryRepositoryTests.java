@@ -0,0 +1,196 @@
+package com.udacity.pricing.domain.price.history;
+
+import com.udacity.pricing.domain.price.Price;
+import com.udacity.pricing.domain.price.PriceRepository;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PriceHistoryRepositoryTests {
+
+	private static final Instant JAN = Instant.parse("2020-01-01T00:00:00Z");
+	private static final Instant FEB = Instant.parse("2020-02-01T00:00:00Z");
+	private static final Instant MAR = Instant.parse("2020-03-01T00:00:00Z");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PriceHistoryRepository repository;
+
+	@Autowired
+	private PriceRepository priceRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	@DisplayName("Find the price a vehicle had at a point in time.")
+	public void testAsOf() {
+		repository.save(new PriceHistory(700L, "USD", new BigDecimal("10000"), JAN));
+		repository.save(new PriceHistory(700L, "USD", new BigDecimal("9000"), FEB));
+		repository.save(new PriceHistory(701L, "USD", new BigDecimal("5000"), FEB));
+		repository.save(PriceHistory.removed(700L, MAR));
+
+		assertNull(asOf(700L, JAN.minusSeconds(1)));
+		assertEquals(new BigDecimal("10000.00"), asOf(700L, JAN).getPrice());
+		assertEquals(new BigDecimal("10000.00"), asOf(700L, FEB.minusSeconds(1)).getPrice());
+		assertEquals(new BigDecimal("9000.00"), asOf(700L, FEB).getPrice());
+		// a deleted price is an entry without a price
+		assertEquals(MAR, asOf(700L, MAR.plusSeconds(1)).getEffectiveAt());
+		assertNull(asOf(700L, MAR.plusSeconds(1)).getPrice());
+	}
+
+	@Test
+	@DisplayName("List the price changes of a vehicle during a period.")
+	public void testRange() {
+		repository.save(new PriceHistory(710L, "USD", new BigDecimal("10000"), JAN));
+		repository.save(new PriceHistory(710L, "USD", new BigDecimal("9500"), FEB));
+		repository.save(new PriceHistory(710L, "USD", new BigDecimal("9000"), FEB.plusSeconds(60)));
+		repository.save(new PriceHistory(710L, "USD", new BigDecimal("8000"), MAR));
+
+		Pageable page = PageRequest.of(0, 10);
+		List<BigDecimal> prices = repository
+				.findByVehicleIdAndEffectiveAtGreaterThanEqualAndEffectiveAtLessThanOrderByEffectiveAtAscIdAsc(
+						710L, FEB, MAR, page)
+				.stream()
+				.map(PriceHistory::getPrice)
+				.collect(Collectors.toList());
+
+		assertEquals(List.of(new BigDecimal("9500.00"), new BigDecimal("9000.00")), prices);
+	}
+
+	@Test
+	@DisplayName("Read both lookups from the as-of index, the latest entry first.")
+	public void testLookupsUseIndex() {
+		repository.save(new PriceHistory(705L, "USD", new BigDecimal("10000"), JAN));
+
+		String asOf = explain("select * from price_history where vehicle_id = 705 "
+				+ "and effective_at <= timestamp '2020-02-01 00:00:00' "
+				+ "order by vehicle_id, effective_at desc, id desc limit 1");
+		String range = explain("select * from price_history where vehicle_id = 705 "
+				+ "and effective_at >= timestamp '2020-01-01 00:00:00' and effective_at < timestamp '2020-03-01 00:00:00' "
+				+ "order by effective_at, id");
+
+		assertTrue(asOf.contains("PUBLIC.PRICE_HISTORY_AS_OF:"), asOf);
+		assertTrue(asOf.contains("index sorted"), asOf);
+		assertTrue(range.contains("PUBLIC.PRICE_HISTORY_AS_OF:"), range);
+	}
+
+	@Test
+	@DisplayName("Record every price written through the REST API.")
+	public void testRecordPriceChanges() throws Exception {
+
+		String content = mockMvc.perform(post("/prices")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content("{\"currency\":\"USD\", \"price\":\"12000\", \"vehicle_id\":\"720\"}"))
+				.andExpect(status().isCreated())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		int priceId = (int) new JSONObject(content).get("price_id");
+
+		mockMvc.perform(patch("/prices/" + priceId)
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content("{\"price\":\"11000\"}"))
+				.andExpect(status().isOk());
+
+		// leaves the price as it was, so adds no entry
+		mockMvc.perform(patch("/prices/" + priceId)
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content("{\"price\":\"11000.00\", \"currency\":\"USD\"}"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(delete("/prices/" + priceId))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/price-history/search/range")
+				.param("vehicle_id", "720")
+				.param("from", JAN.toString())
+				.param("to", Instant.now().plusSeconds(60).toString()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("_embedded.history.length()").value(3))
+				.andExpect(jsonPath("_embedded.history[0].price").value(12000.0))
+				.andExpect(jsonPath("_embedded.history[1].price").value(11000.0))
+				.andExpect(jsonPath("_embedded.history[2].price").doesNotExist());
+
+		mockMvc.perform(get("/price-history/search/asOf")
+				.param("vehicle_id", "720")
+				.param("at", JAN.toString()))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	@DisplayName("Record the prices a batch created or updated.")
+	public void testRecordBatchPriceChanges() throws Exception {
+
+		String batch = "[{\"currency\":\"USD\", \"price\":\"12000\", \"vehicle_id\":\"730\"}," +
+				"{\"currency\":\"USD\", \"price\":\"13000\", \"vehicle_id\":\"731\"}]";
+		mockMvc.perform(put("/prices/batch")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content(batch))
+				.andExpect(status().isOk());
+		Instant before = Instant.now();
+		mockMvc.perform(put("/prices/batch")
+				.accept(MediaType.APPLICATION_JSON_UTF8)
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.content(batch.replace("13000", "13500")))
+				.andExpect(status().isOk());
+
+		assertEquals(new BigDecimal("12000.00"), asOf(730L, Instant.now()).getPrice());
+		assertEquals(new BigDecimal("13000.00"), asOf(731L, before).getPrice());
+		assertEquals(new BigDecimal("13500.00"), asOf(731L, Instant.now()).getPrice());
+	}
+
+	@Test
+	@DisplayName("Record the prices deleted together.")
+	public void testRecordDeleteAll() {
+		Iterable<Price> prices = priceRepository.saveAll(List.of(
+				new Price("USD", new BigDecimal("12000"), 740L),
+				new Price("USD", new BigDecimal("13000"), 741L)));
+
+		priceRepository.deleteAll(prices);
+
+		assertNull(asOf(740L, Instant.now()).getPrice());
+		assertNull(asOf(741L, Instant.now()).getPrice());
+	}
+
+	private String explain(String query) {
+		return jdbcTemplate.queryForObject("explain " + query, String.class);
+	}
+
+	private PriceHistory asOf(Long vehicleId, Instant at) {
+		return repository
+				.findFirstByVehicleIdAndEffectiveAtLessThanEqualOrderByVehicleIdAscEffectiveAtDescIdDesc(vehicleId, at);
+	}
+}
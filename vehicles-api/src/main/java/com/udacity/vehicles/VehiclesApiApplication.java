@@ -1,21 +1,51 @@
 package com.udacity.vehicles;
 
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.udacity.vehicles.client.DownstreamPolicy;
+import com.udacity.vehicles.client.prices.PriceChangedEvent;
 import com.udacity.vehicles.domain.manufacturer.Manufacturer;
 import com.udacity.vehicles.domain.manufacturer.ManufacturerRepository;
-import com.udacity.vehicles.eureka.EurekaEndpoint;
-import org.modelmapper.ModelMapper;
+import com.udacity.vehicles.eureka.ServiceLoadBalancer;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.jms.support.converter.MessageType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
 
 /**
  * Launches a Spring Boot application for the Vehicles API,
@@ -81,6 +111,11 @@ import org.springframework.web.reactive.function.client.WebClient;
 @EnableEurekaClient
 public class VehiclesApiApplication {
 
+    /**
+     * Profile running request handling and the blocking client calls on virtual threads.
+     */
+    public static final String VIRTUAL_THREADS = "virtual-threads";
+
     @Autowired
     Environment env;
 
@@ -107,9 +142,42 @@ public class VehiclesApiApplication {
         };
     }
 
+    /**
+     * Creates the caches of the Hibernate second-level cache.  Each
+     * application context gets its own cache manager, rather than the
+     * JVM-wide default one, so contexts started side by side, as in tests,
+     * never see each other's entities.
+     * @return the cache manager, closed with the application
+     */
+    @Bean(name="hibernateCacheManager")
+    public CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("vehicles-api:" + UUID.randomUUID()), getClass().getClassLoader());
+    }
+
+    /**
+     * Hands the second-level cache manager to Hibernate.
+     * @param cacheManager the cache manager holding the entity regions
+     * @return the customizer adding it to the Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCache(@Qualifier("hibernateCacheManager") CacheManager cacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", cacheManager);
+    }
+
+    /**
+     * Reads the JSON price change events published by the pricing service.
+     * The events carry a type id rather than a class name, mapped here
+     * to this service's own event class.
+     * @return converter used by the JMS listeners
+     */
     @Bean
-    public ModelMapper modelMapper() {
-        return new ModelMapper();
+    public MessageConverter jacksonJmsMessageConverter() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setTargetType(MessageType.TEXT);
+        converter.setTypeIdPropertyName("_type");
+        converter.setTypeIdMappings(Collections.singletonMap(PriceChangedEvent.TYPE_ID, PriceChangedEvent.class));
+        return converter;
     }
 
     /**
@@ -118,40 +186,203 @@ public class VehiclesApiApplication {
      * @return created maps endpoint
      */
     @Bean(name="maps")
-    public WebClient webClientMaps(@Value("${maps.endpoint}") String endpoint) {
-        return WebClient.create(endpoint);
+    public WebClient webClientMaps(@Value("${maps.endpoint}") String endpoint,
+                                   @Value("${vehicles.client.max-connections:500}") int maxConnections) {
+        return webClient("maps", endpoint, maxConnections);
     }
 
     /**
      * Web Client for the pricing API
      */
     @Bean(name="pricing")
-    public WebClient webClientPricing(@Qualifier("eurekaUrl") String eurekaUrl) {
-        return WebClient.create(eurekaUrl);
+    public WebClient webClientPricing(@Value("${pricing.service.name:PRICING-SERVICE}") String serviceName,
+                                      @Value("${vehicles.client.max-connections:500}") int maxConnections,
+                                      ServiceLoadBalancer pricingLoadBalancer) {
+        return webClient("pricing", "http://" + serviceName, maxConnections).mutate()
+                .filter(pricingLoadBalancer)
+                .build();
+
+    }
 
+    /**
+     * Circuit breakers of the downstream services, with their state and
+     * call counts published as `resilience4j.circuitbreaker.*` metrics.
+     * @param meterRegistry registry the metrics are published to
+     * @return registry of the circuit breakers
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Bulkheads of the downstream services, with the calls they still
+     * admit published as `resilience4j.bulkhead.*` metrics.
+     * @param meterRegistry registry the metrics are published to
+     * @return registry of the bulkheads
+     */
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Timeout, bulkhead and circuit breaker for the pricing API.
+     */
+    @Bean(name="pricingPolicy")
+    public DownstreamPolicy pricingPolicy(@Value("${vehicles.client.pricing.timeout:2000}") long timeout,
+                                          @Value("${vehicles.client.pricing.max-concurrent-calls:200}") int maxConcurrentCalls,
+                                          @Value("${vehicles.client.circuit.failure-rate-threshold:50}") float failureRateThreshold,
+                                          @Value("${vehicles.client.circuit.sliding-window-size:20}") int slidingWindowSize,
+                                          @Value("${vehicles.client.circuit.wait-in-open-state:30}") long waitInOpenState,
+                                          BulkheadRegistry bulkheads, CircuitBreakerRegistry circuitBreakers) {
+        return DownstreamPolicy.of("pricing", Duration.ofMillis(timeout), maxConcurrentCalls,
+                failureRateThreshold, slidingWindowSize, Duration.ofSeconds(waitInOpenState),
+                bulkheads, circuitBreakers);
+    }
+
+    /**
+     * Timeout, bulkhead and circuit breaker for the maps API.
+     */
+    @Bean(name="mapsPolicy")
+    public DownstreamPolicy mapsPolicy(@Value("${vehicles.client.maps.timeout:2000}") long timeout,
+                                       @Value("${vehicles.client.maps.max-concurrent-calls:200}") int maxConcurrentCalls,
+                                       @Value("${vehicles.client.circuit.failure-rate-threshold:50}") float failureRateThreshold,
+                                       @Value("${vehicles.client.circuit.sliding-window-size:20}") int slidingWindowSize,
+                                       @Value("${vehicles.client.circuit.wait-in-open-state:30}") long waitInOpenState,
+                                       BulkheadRegistry bulkheads, CircuitBreakerRegistry circuitBreakers) {
+        return DownstreamPolicy.of("maps", Duration.ofMillis(timeout), maxConcurrentCalls,
+                failureRateThreshold, slidingWindowSize, Duration.ofSeconds(waitInOpenState),
+                bulkheads, circuitBreakers);
+    }
+
+    /**
+     * Creates a Web Client with its own connection pool.  The shared default
+     * pool only allows twice the number of processors (at least 16) connections,
+     * which would cap the number of concurrent lookups well below what
+     * non-blocking callers can issue.
+     * @param name name of the connection pool
+     * @param endpoint base url of the API
+     * @param maxConnections the most connections kept open to the API
+     * @return created Web Client
+     */
+    private static WebClient webClient(String name, String endpoint, int maxConnections) {
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.fixed(name, maxConnections));
+        return WebClient.builder()
+                .baseUrl(endpoint)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Runs blocking JPA calls issued from reactive pipelines, with
+     * one thread per connection in the datasource pool.
+     * @param poolSize the maximum number of datasource connections
+     * @return scheduler for repository calls
+     */
+    @Bean(name="jdbcScheduler", destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        return Schedulers.fromExecutorService(Executors.newFixedThreadPool(poolSize));
+    }
+
+    /**
+     * Runs the lookups `CarService.findById` forks for each car on
+     * virtual threads, so their number is bounded by the client connection
+     * pools rather than by a thread pool.
+     * @return executor starting a virtual thread per task
+     */
+    @Bean(name="enrichmentExecutor", destroyMethod = "shutdown")
+    @Profile(VIRTUAL_THREADS)
+    public ExecutorService enrichmentExecutor() {
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Runs the Tomcat requests on virtual threads.  Tomcat leaves an executor
+     * it was given running when it stops, so it is shut down with the context.
+     * @return executor starting a virtual thread per task
+     */
+    @Bean(name="tomcatExecutor", destroyMethod = "shutdown")
+    @Profile(VIRTUAL_THREADS)
+    public ExecutorService tomcatExecutor() {
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Handles every Tomcat request on its own virtual thread instead of
+     * the `server.tomcat.max-threads` worker pool.
+     * @param tomcatExecutor executor starting a virtual thread per request
+     * @return customizer replacing the connector executor
+     */
+    @Bean
+    @Profile(VIRTUAL_THREADS)
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadsTomcat(
+            @Qualifier("tomcatExecutor") ExecutorService tomcatExecutor) {
+        return factory -> factory.addConnectorCustomizers(connector ->
+                connector.getProtocolHandler().setExecutor(tomcatExecutor));
+    }
+
+    /**
+     * Looks up `Executors.newVirtualThreadPerTaskExecutor()` at runtime.
+     * The application is compiled for Java 11, which Spring Boot 2.1 can
+     * read, and only the `virtual-threads` profile needs a JDK 21 runtime.
+     * @return executor starting a virtual thread per task
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                            MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("The " + VIRTUAL_THREADS + " profile requires JDK 21 or later", e);
+        }
     }
 
     /**
      * DONE! : Find the service dynamically from the eureka server.
      *
-     * This method provides the endpoint url of the Pricing API
-     * on the Eureka server.  It returns an endpoint for a local server
+     * Balances the requests to the Pricing API over every instance
+     * registered on the Eureka server.  Requests go to a local server
      * instance if a remote connection via Eureka is not available.
      *
      *  @param connectToEureka if true discover and use remote service API,
      *                        if false use local endpoint.
      *  @param serviceName the name of the Eureka service to discover.
      *  @param localEndpoint where to communicate for the pricing API.
-     *  @return created pricing endpoint url
+     *  @param strategy how the instance of each request is picked
+     *  @param failuresToEject consecutive failed requests that eject an instance
+     *  @param ejectionTime seconds an ejected instance gets no requests
+     *  @param responseTimeout milliseconds an instance has to answer before
+     *                         the request counts as failed
+     *  @return load balancer for the pricing Web Client
      */
-    @Bean(name="eurekaUrl")
-    public String eurekaUrl (
+    @Bean
+    public ServiceLoadBalancer pricingLoadBalancer (
             @Value("${pricing.endpoint.use.eureka:false}") boolean connectToEureka,
             @Value("${pricing.service.name:PRICING-SERVICE}") String serviceName,
-            @Value("${pricing.endpoint.local:http://localhost:8082}") String localEndpoint) {
+            @Value("${pricing.endpoint.local:http://localhost:8082}") String localEndpoint,
+            @Value("${pricing.load-balancer.strategy:ROUND_ROBIN}") ServiceLoadBalancer.Strategy strategy,
+            @Value("${pricing.load-balancer.failures-to-eject:3}") int failuresToEject,
+            @Value("${pricing.load-balancer.ejection-time:30}") long ejectionTime,
+            @Value("${pricing.load-balancer.response-timeout:1500}") long responseTimeout) {
+
+        return new ServiceLoadBalancer(discoveryClient, connectToEureka, serviceName, localEndpoint,
+                strategy, failuresToEject, Duration.ofSeconds(ejectionTime), Duration.ofMillis(responseTimeout));
+    }
 
-        EurekaEndpoint endpoint = new EurekaEndpoint(discoveryClient, connectToEureka, serviceName, localEndpoint);
-        return endpoint.lookup();
+    /**
+     * The endpoint url of a pricing instance, read without advancing the
+     * load balancer's rotation.
+     * @return url of a pricing instance or the local endpoint
+     */
+    @Bean(name="eurekaUrl")
+    public String eurekaUrl(ServiceLoadBalancer pricingLoadBalancer) {
+        return pricingLoadBalancer.lookup();
     }
 
 
@@ -0,0 +1,25 @@
+package com.udacity.vehicles.api;
+
+import java.util.List;
+
+/**
+ * Declares the answer to saving many cars at once.
+ */
+class CarBatch {
+
+    private final int count;
+    private final List<Long> ids;
+
+    CarBatch(int count, List<Long> ids) {
+        this.count = count;
+        this.ids = ids;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+}
@@ -1,21 +1,42 @@
 package com.udacity.vehicles.api;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.methodOn;
-
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarFilter;
+import com.udacity.vehicles.service.CarExporter;
+import com.udacity.vehicles.service.CarImporter;
+import com.udacity.vehicles.service.CarLocator;
 import com.udacity.vehicles.service.CarService;
+import com.udacity.vehicles.service.CarVersion;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import javax.validation.Valid;
 
 import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.Resources;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -24,8 +45,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import springfox.documentation.annotations.ApiIgnore;
 
 /**
  * Implements a REST-based controller for the Vehicles API.
@@ -36,49 +63,237 @@ import org.springframework.web.bind.annotation.RestController;
 @Api(value="Vehicle Inventory API")
 class CarController {
 
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private static final Framing NDJSON = (car, json, out) -> {
+        out.write(json);
+        out.write('\n');
+    };
+
+    private static final Framing EVENTS = (car, json, out) -> {
+        out.write(("event: car\nid: " + car.getId() + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+        out.write(json);
+        out.write('\n');
+        out.write('\n');
+    };
+
     private final CarService carService;
+    private final CarImporter carImporter;
+    private final CarExporter carExporter;
+    private final CarLocator carLocator;
     private final CarResourceAssembler assembler;
+    private final ObjectReader carReader;
+    private final ObjectWriter carWriter;
+    private final int enrichWindow;
 
-    CarController(CarService carService, CarResourceAssembler assembler) {
+    CarController(CarService carService, CarImporter carImporter, CarExporter carExporter,
+                  CarLocator carLocator, CarResourceAssembler assembler, ObjectMapper objectMapper,
+                  @Value("${vehicles.import.enrich-window:100}") int enrichWindow) {
         this.carService = carService;
+        this.carImporter = carImporter;
+        this.carExporter = carExporter;
+        this.carLocator = carLocator;
         this.assembler = assembler;
+        this.carReader = objectMapper.readerFor(Car.class);
+        this.carWriter = objectMapper.writerFor(Car.class);
+        this.enrichWindow = enrichWindow;
     }
 
     /**
-     * Creates a list to store any vehicles.
-     * @return list of vehicles
+     * Lists one page of vehicles.
+     *
+     * Pages are addressed by number with `page`, `size` and `sort`, or, when
+     * `after` or `before` is given, by seeking from a car id.  Seeking keeps
+     * deep pages as cheap as the first one but always orders by id.
+     * @param pageable the page number, size and sort order to retrieve
+     * @param after id of the last car on the previous page (0 starts at the beginning)
+     * @param before id of the first car on the following page
+     * @return a page of vehicles with links to the neighbouring pages
      */
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
         @ApiOperation(value = "List all cars in the inventory",
-                notes = "All cars currently in the system will be listed.  " +
+                notes = "Cars currently in the system are listed a page at a time.  " +
                         "Price and location information are generated randomly." +
                         "These cars do not represent anything in the real world.")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "page", dataType = "int", paramType = "query",
+                    value = "Page number to retrieve (0..N)"),
+            @ApiImplicitParam(name = "size", dataType = "int", paramType = "query",
+                    value = "Number of cars per page"),
+            @ApiImplicitParam(name = "sort", dataType = "string", paramType = "query", allowMultiple = true,
+                    value = "Sort order in the format: property(,asc|desc), e.g. details.modelYear,desc")
+    })
+    Resources<Resource<Car>> list(@ApiIgnore @PageableDefault(size = 20, sort = "id") Pageable pageable,
+                                  @ApiParam(value = "Seek past this car id instead of using a page number")
+                                    @RequestParam(required = false) Long after,
+                                  @ApiParam(value = "Seek before this car id instead of using a page number")
+                                    @RequestParam(required = false) Long before) {
+        if (after != null) {
+            return assembler.toKeysetResources(carService.listAfter(after, pageable.getPageSize()));
+        }
+        if (before != null) {
+            return assembler.toKeysetResources(carService.listBefore(before, pageable.getPageSize()));
+        }
+        return assembler.toPagedResources(carService.list(pageable));
+    }
 
-    Resources<Resource<Car>> list() {
-        List<Resource<Car>> resources = carService.list().stream().map(assembler::toResource)
+    /**
+     * Lists one page of the vehicles matching every given filter.
+     * @param filter the conditions the vehicles must meet
+     * @param pageable the page number, size and sort order to retrieve
+     * @return a page of matching vehicles with links to the neighbouring pages
+     */
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "Search the inventory",
+            notes = "Filters may be combined; cars must match all of them.  " +
+                    "The bounding box takes all of south, west, north and east.")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "page", dataType = "int", paramType = "query",
+                    value = "Page number to retrieve (0..N)"),
+            @ApiImplicitParam(name = "size", dataType = "int", paramType = "query",
+                    value = "Number of cars per page"),
+            @ApiImplicitParam(name = "sort", dataType = "string", paramType = "query", allowMultiple = true,
+                    value = "Sort order in the format: property(,asc|desc), e.g. details.mileage,asc")
+    })
+    PagedResources<Resource<Car>> search(@Valid CarFilter filter,
+                                         @ApiIgnore @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return assembler.toSearchResources(carService.search(filter, pageable));
+    }
+
+    /**
+     * Lists the vehicles nearest to a point, within a radius.
+     * @param query the point, radius and number of vehicles to find
+     * @return the vehicles nearest first, each with its distance in kilometers
+     */
+    @GetMapping(path = "/near", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "Find the cars near a point",
+            notes = "Cars within radiusKm of lat and lon are listed nearest first, with their distance.")
+    Resources<NearbyCarResource> near(@Valid NearbyQuery query) {
+        String carsHref = assembler.carsHref();
+        List<NearbyCarResource> cars = carLocator
+                .near(query.getLat(), query.getLon(), query.getRadiusKm(), query.getLimit()).stream()
+                .map(nearby -> new NearbyCarResource(nearby.getCar(), nearby.getDistanceKm(),
+                        new Link(carsHref + "/" + nearby.getCar().getId()).withSelfRel(),
+                        new Link(carsHref).withRel("cars")))
                 .collect(Collectors.toList());
-        return new Resources<>(resources,
-                linkTo(methodOn(CarController.class).list()).withSelfRel());
+        return new Resources<>(cars,
+                new Link(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+    }
+
+    /**
+     * Streams the whole inventory, one car per line.
+     *
+     * Cars are written as they are read and enriched, a window at a time,
+     * so the response starts at once and memory use does not depend on
+     * the size of the inventory.
+     * @param after id of the last car already received, to resume an export
+     * @return the cars in id order, as newline delimited JSON
+     */
+    @GetMapping(path = "/export", produces = APPLICATION_NDJSON_VALUE)
+    @ApiOperation(value = "Export every car in the inventory, one per line.",
+            notes = "Cars are streamed in id order as application/x-ndjson.")
+    ResponseEntity<StreamingResponseBody> export(@ApiParam(value = "Resume after this car id")
+                                                   @RequestParam(defaultValue = "0") long after) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.valueOf(APPLICATION_NDJSON_VALUE))
+                .body(out -> export(after, out, NDJSON));
+    }
+
+    /**
+     * Streams the whole inventory as Server-Sent Events, one `car` event
+     * per car with the car id as event id.  A client reconnecting with the
+     * `Last-Event-ID` header resumes after the last car it received.
+     * @param after id of the last car already received, to resume an export
+     * @param lastEventId id of the last car received, sent by reconnecting clients
+     * @return the cars in id order, as an event stream
+     */
+    @GetMapping(path = "/export", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value = "Export every car in the inventory as Server-Sent Events.",
+            notes = "Cars are streamed in id order, one car event each.")
+    ResponseEntity<StreamingResponseBody> exportEvents(@ApiParam(value = "Resume after this car id")
+                                                         @RequestParam(defaultValue = "0") long after,
+                                                       @ApiIgnore @RequestHeader(name = "Last-Event-ID", required = false)
+                                                         Long lastEventId) {
+        long from = lastEventId != null ? lastEventId : after;
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header("Cache-Control", "no-cache")
+                .body(out -> export(from, out, EVENTS));
+    }
+
+    /**
+     * Writes the cars following `after` and flushes them to the client a
+     * window at a time.
+     */
+    private void export(long after, OutputStream out, Framing framing) throws IOException {
+        try {
+            carExporter.exportCars(after, cars -> {
+                try {
+                    for (Car car : cars) {
+                        framing.write(car, carWriter.writeValueAsBytes(car), out);
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Frames one car, already written as single-line JSON, in the response.
+     */
+    @FunctionalInterface
+    private interface Framing {
+        void write(Car car, byte[] json, OutputStream out) throws IOException;
     }
 
     /**
      * Gets information of a specific car by ID.
+     *
+     * The response carries a weak ETag and a Last-Modified date covering the
+     * stored car and its price.  While the price is cached, a request whose
+     * If-None-Match or If-Modified-Since still holds is answered 304 Not
+     * Modified straight from the database, without looking up the price or
+     * address.
      * @param id the id number of the given vehicle
-     * @return all information for the requested vehicle
+     * @param request checked for If-None-Match and If-Modified-Since
+     * @return all information for the requested vehicle, or 304 Not Modified
      */
     @GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     @ApiOperation(value = "Find a car by its vehicle id in the current inventory.",
             notes = "The id is generated with the vehicle during POST request.")
-    Resource<Car> get(@ApiParam(value="id of the vehicle to find", required=true)
-                        @PathVariable Long id) {
+    ResponseEntity<Resource<Car>> get(@ApiParam(value="id of the vehicle to find", required=true)
+                        @PathVariable Long id, WebRequest request) {
         /**
          * DONE! : Use the `findById` method from the Car Service to get car information.
          * DONE! : Use the `assembler` on that car and return the resulting output.
          *   Update the first line as part of the above implementing.
          *
          */
-        Car car = carService.findById(id);
-        return assembler.toResource(car);
+        Car car = carService.findStoredById(id);
+        Optional<CarVersion> cached = carService.findCachedVersion(car);
+        if (cached.isPresent()
+                && request.checkNotModified(eTag(cached.get()), cached.get().getLastModified().toEpochMilli())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        carService.enrich(car);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        carService.versionOf(car).ifPresent(version -> response
+                .eTag(eTag(version))
+                .lastModified(version.getLastModified().toEpochMilli()));
+        return response.body(assembler.toResource(car));
+    }
+
+    /**
+     * Weak, as the address and formatting may vary while the car and its
+     * price stay the same.
+     */
+    private static String eTag(CarVersion version) {
+        return "W/\"" + version.getTag() + "\"";
     }
 
     /**
@@ -102,6 +317,71 @@ class CarController {
         return ResponseEntity.created(new URI(resource.getId().expand().getHref())).body(resource);
     }
 
+    /**
+     * Creates or updates many vehicles at once, such as a dealer feed.
+     *
+     * The body is a JSON array of cars, or one car per line with the
+     * `application/x-ndjson` content type; either way cars are read and
+     * saved as they arrive rather than once the whole body is in memory.
+     * Cars with an id update that car.  Either every car is saved or, if
+     * any is invalid, none is.  Saved cars that are returned are enriched
+     * `vehicles.import.enrich-window` at a time as their chunk is written,
+     * as the export does.
+     * @param enrich whether to look up the price and address of the saved
+     *   cars and return them, rather than only their ids
+     * @param body the cars to save
+     * @return the number and ids of the saved cars, or the enriched cars
+     * @throws IOException if the body cannot be read
+     */
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "Save many cars to the inventory at once.",
+            notes = "Send a JSON array of cars, or one car per line as application/x-ndjson.  " +
+                    "Cars with an id update that car.  No car is saved if any is invalid.")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "cars", paramType = "body", dataType = "Car", allowMultiple = true,
+                    value = "The cars to save", required = true)
+    })
+    ResponseEntity<?> postBatch(@ApiParam(value = "Return the saved cars with their price and address")
+                                  @RequestParam(defaultValue = "false") boolean enrich,
+                                @ApiIgnore InputStream body) throws IOException {
+        if (!enrich) {
+            List<Long> ids = new ArrayList<>();
+            int count;
+            try (MappingIterator<Car> input = carReader.readValues(body)) {
+                count = carImporter.importCars(input, car -> ids.add(car.getId()));
+            }
+            return ResponseEntity.ok(new CarBatch(count, ids));
+        }
+        String carsHref = assembler.carsHref();
+        List<Resource<Car>> resources = new ArrayList<>();
+        List<Car> window = new ArrayList<>(enrichWindow);
+        try (MappingIterator<Car> input = carReader.readValues(body)) {
+            carImporter.importCars(input, car -> {
+                window.add(car);
+                if (window.size() == enrichWindow) {
+                    enrichWindow(window, carsHref, resources);
+                }
+            });
+        }
+        enrichWindow(window, carsHref, resources);
+        return ResponseEntity.ok(new Resources<>(resources, new Link(carsHref).withRel("cars")));
+    }
+
+    /**
+     * Enriches the saved cars of the window and adds them to the response,
+     * emptying the window for the next ones.
+     */
+    private void enrichWindow(List<Car> window, String carsHref, List<Resource<Car>> resources) {
+        if (window.isEmpty()) {
+            return;
+        }
+        List<Car> cars = new ArrayList<>(window);
+        window.clear();
+        carService.enrich(cars);
+        cars.forEach(car -> resources.add(assembler.toResource(car, carsHref)));
+    }
+
     /**
      * Updates the information of a vehicle in the system.
      * @param id The ID number for which to update vehicle information.
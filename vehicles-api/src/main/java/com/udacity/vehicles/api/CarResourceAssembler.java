@@ -1,23 +1,226 @@
 package com.udacity.vehicles.api;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.service.CarKeysetPage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.ResourceAssembler;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.core.AnnotationMappingDiscoverer;
 import org.springframework.stereotype.Component;
-
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.*;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Maps the CarController to the Car class using HATEOAS
+ *
+ * The `/cars` and `/cars/{id}` mappings are read from the controller once.
+ * The links built from them are kept for each base URI the service is
+ * reached at.  A car resource then costs one string concatenation for
+ * its self link and shares the `cars` link, instead of a controller proxy
+ * invocation and a mapping lookup per link.
  */
 @Component
 public class CarResourceAssembler implements ResourceAssembler<Car, Resource<Car>> {
 
+    private static final int MAX_BASE_URIS = 100;
+
+    private final String carsPath;
+    private final String carPathPrefix;
+    private final String carPathSuffix;
+    private final Cache<String, LinkTemplates> templates = Caffeine.newBuilder()
+            .maximumSize(MAX_BASE_URIS)
+            .build();
+
+    public CarResourceAssembler() {
+        AnnotationMappingDiscoverer mappings = new AnnotationMappingDiscoverer(RequestMapping.class);
+        this.carsPath = mappings.getMapping(CarController.class);
+        String carPath = mappings.getMapping(CarController.class,
+                ReflectionUtils.findMethod(CarController.class, "get", Long.class, WebRequest.class));
+        int start = carPath.indexOf('{');
+        int end = carPath.indexOf('}', start);
+        Assert.isTrue(start >= 0 && carPath.indexOf('{', end) < 0, "expected one variable in " + carPath);
+        this.carPathPrefix = carPath.substring(0, start);
+        this.carPathSuffix = carPath.substring(end + 1);
+    }
+
     @Override
     public Resource<Car> toResource(Car car) {
-        return new Resource<>(car,
-                linkTo(methodOn(CarController.class).get(car.getId())).withSelfRel(),
-                linkTo(methodOn(CarController.class).list()).withRel("cars"));
+        return toResource(car, templates());
+    }
+
+    /**
+     * Resolves the `/cars` link against the current request.  Reactive
+     * handlers call this on the request thread and pass the result to the
+     * methods taking a `carsHref`, which may then run on any thread.
+     * @return the absolute href of the car collection
+     */
+    public String carsHref() {
+        return templates().cars.getHref();
+    }
+
+    /**
+     * Builds a car resource from a previously resolved collection href.
+     * @param car the car to wrap
+     * @param carsHref the href returned by {@link #carsHref()}
+     * @return the car resource with self and cars links
+     */
+    public Resource<Car> toResource(Car car, String carsHref) {
+        return toResource(car, templates(carsHref));
+    }
+
+    private Resource<Car> toResource(Car car, LinkTemplates links) {
+        return new Resource<>(car, links.car(car.getId()), links.cars);
+    }
+
+    /**
+     * Wraps a page of cars with the page metadata and
+     * self, first, prev, next and last links.
+     * @param page the page of cars to return
+     * @return the page of car resources
+     */
+    public PagedResources<Resource<Car>> toPagedResources(Page<Car> page) {
+        return toPagedResources(page, carsHref());
+    }
+
+    /**
+     * Wraps a page of cars using a previously resolved collection href.
+     * @param page the page of cars to return
+     * @param carsHref the href returned by {@link #carsHref()}
+     * @return the page of car resources
+     */
+    public PagedResources<Resource<Car>> toPagedResources(Page<Car> page, String carsHref) {
+        return toPagedResources(page, carsHref, UriComponentsBuilder.fromHttpUrl(carsHref));
+    }
+
+    /**
+     * Wraps a page of search results.  The page links repeat the filters
+     * of the current request.
+     * @param page the page of matching cars to return
+     * @return the page of car resources
+     */
+    public PagedResources<Resource<Car>> toSearchResources(Page<Car> page) {
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+                .getRequest();
+        UriComponentsBuilder pages = ServletUriComponentsBuilder.fromCurrentRequestUri();
+        request.getParameterMap().forEach((name, values) -> pages.queryParam(name, (Object[]) values));
+        return toPagedResources(page, carsHref(), pages);
+    }
+
+    private PagedResources<Resource<Car>> toPagedResources(Page<Car> page, String carsHref,
+                                                           UriComponentsBuilder pages) {
+        List<Link> links = new ArrayList<>();
+        links.add(pageLink(pages, page.getNumber(), page.getSize(), page.getSort(), Link.REL_SELF));
+        links.add(pageLink(pages, 0, page.getSize(), page.getSort(), Link.REL_FIRST));
+        if (page.hasPrevious()) {
+            links.add(pageLink(pages, page.getNumber() - 1, page.getSize(), page.getSort(), Link.REL_PREVIOUS));
+        }
+        if (page.hasNext()) {
+            links.add(pageLink(pages, page.getNumber() + 1, page.getSize(), page.getSort(), Link.REL_NEXT));
+        }
+        links.add(pageLink(pages, Math.max(page.getTotalPages() - 1, 0), page.getSize(), page.getSort(), Link.REL_LAST));
+
+        PagedResources.PageMetadata metadata = new PagedResources.PageMetadata(
+                page.getSize(), page.getNumber(), page.getTotalElements(), page.getTotalPages());
+        LinkTemplates templates = templates(carsHref);
+        List<Resource<Car>> resources = page.getContent().stream()
+                .map(car -> toResource(car, templates))
+                .collect(Collectors.toList());
+        return new PagedResources<>(resources, metadata, links);
+    }
+
+    /**
+     * Wraps a keyset page of cars with prev and next links that seek
+     * from the first and last car ids of the page.
+     * @param page the page of cars to return
+     * @return the car resources and cursor links
+     */
+    public Resources<Resource<Car>> toKeysetResources(CarKeysetPage page) {
+        List<Link> links = new ArrayList<>();
+        links.add(new Link(ServletUriComponentsBuilder.fromCurrentRequest().toUriString()).withSelfRel());
+        if (page.hasPrevious()) {
+            links.add(cursorLink("before", page.getFirstId(), page.getSize(), Link.REL_PREVIOUS));
+        }
+        if (page.hasNext()) {
+            links.add(cursorLink("after", page.getLastId(), page.getSize(), Link.REL_NEXT));
+        }
+        return new Resources<>(toResources(page.getContent()), links);
+    }
+
+    private List<Resource<Car>> toResources(List<Car> cars) {
+        LinkTemplates templates = templates();
+        return cars.stream().map(car -> toResource(car, templates)).collect(Collectors.toList());
+    }
+
+    private Link pageLink(UriComponentsBuilder pages, int page, int size, Sort sort, String rel) {
+        UriComponentsBuilder builder = pages.cloneBuilder()
+                .replaceQueryParam("page", page)
+                .replaceQueryParam("size", size)
+                .replaceQueryParam("sort");
+        sort.forEach(order -> builder.queryParam("sort",
+                order.getProperty() + "," + order.getDirection().name().toLowerCase()));
+        return new Link(builder.toUriString(), rel);
+    }
+
+    private Link cursorLink(String cursor, Long id, int size, String rel) {
+        UriComponentsBuilder builder = carsUri()
+                .replaceQuery(null)
+                .queryParam(cursor, id)
+                .queryParam("size", size);
+        return new Link(builder.toUriString(), rel);
+    }
+
+    private UriComponentsBuilder carsUri() {
+        return UriComponentsBuilder.fromHttpUrl(carsHref());
+    }
+
+    /**
+     * Finds the links under the base URI of the current request, as
+     * `linkTo` would resolve it.
+     */
+    private LinkTemplates templates() {
+        return templates(ServletUriComponentsBuilder.fromCurrentServletMapping().toUriString() + carsPath);
+    }
+
+    private LinkTemplates templates(String carsHref) {
+        return templates.get(carsHref, LinkTemplates::new);
+    }
+
+    /**
+     * The links of the cars under one base URI: the `cars` link every car
+     * shares and the self link template split around the car id.
+     */
+    private final class LinkTemplates {
+
+        final Link cars;
+        final String carPrefix;
+        final String carSuffix;
+
+        LinkTemplates(String carsHref) {
+            Assert.isTrue(carsHref.endsWith(carsPath), "expected a href ending in " + carsPath + ": " + carsHref);
+            String base = carsHref.substring(0, carsHref.length() - carsPath.length());
+            this.cars = new Link(carsHref).withRel("cars");
+            this.carPrefix = base + carPathPrefix;
+            this.carSuffix = carPathSuffix;
+        }
 
+        Link car(Long id) {
+            return new Link(carPrefix + id + carSuffix);
+        }
     }
 }
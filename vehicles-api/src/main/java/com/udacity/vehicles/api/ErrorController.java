@@ -1,12 +1,18 @@
 package com.udacity.vehicles.api;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
+import com.udacity.vehicles.service.InvalidCarsException;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindException;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
@@ -17,20 +23,56 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 public class ErrorController extends ResponseEntityExceptionHandler {
 
     private static final String DEFAULT_VALIDATION_FAILED_MESSAGE = "Validation failed";
+    private static final String INVALID_SORT_MESSAGE = "Invalid sort property";
 
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex,
             HttpHeaders headers, HttpStatus status,
             WebRequest request) {
-        List<String> errors = ex.getBindingResult()
-                .getFieldErrors()
-                .stream()
-                .map(error -> error.getField() + ": " + error.getDefaultMessage()).collect(
-                        Collectors.toList());
+        ApiError apiError = new ApiError(DEFAULT_VALIDATION_FAILED_MESSAGE, fieldErrors(ex.getBindingResult()));
+        return handleExceptionInternal(ex, apiError, headers, HttpStatus.BAD_REQUEST, request);
+    }
 
-        ApiError apiError = new ApiError(DEFAULT_VALIDATION_FAILED_MESSAGE, errors);
+    /**
+     * Rejects query parameters, such as search filters, that are invalid
+     * or of the wrong type.
+     */
+    @Override
+    protected ResponseEntity<Object> handleBindException(
+            BindException ex,
+            HttpHeaders headers, HttpStatus status,
+            WebRequest request) {
+        ApiError apiError = new ApiError(DEFAULT_VALIDATION_FAILED_MESSAGE, fieldErrors(ex.getBindingResult()));
         return handleExceptionInternal(ex, apiError, headers, HttpStatus.BAD_REQUEST, request);
     }
-}
 
+    private static List<String> fieldErrors(BindingResult result) {
+        return result.getFieldErrors()
+                .stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Rejects a sort order naming a property that cars do not have.
+     */
+    @ExceptionHandler(PropertyReferenceException.class)
+    protected ResponseEntity<Object> handlePropertyReference(
+            PropertyReferenceException ex,
+            WebRequest request) {
+        ApiError apiError = new ApiError(INVALID_SORT_MESSAGE, Collections.singletonList(ex.getMessage()));
+        return handleExceptionInternal(ex, apiError, new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
+    }
+
+    /**
+     * Rejects a batch of cars holding invalid cars, listing their errors.
+     */
+    @ExceptionHandler(InvalidCarsException.class)
+    protected ResponseEntity<Object> handleInvalidCars(
+            InvalidCarsException ex,
+            WebRequest request) {
+        ApiError apiError = new ApiError(DEFAULT_VALIDATION_FAILED_MESSAGE, ex.getErrors());
+        return handleExceptionInternal(ex, apiError, new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
+    }
+}
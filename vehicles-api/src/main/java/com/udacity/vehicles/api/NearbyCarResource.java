@@ -0,0 +1,22 @@
+package com.udacity.vehicles.api;
+
+import com.udacity.vehicles.domain.car.Car;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resource;
+
+/**
+ * Declares a car found near a point, with its distance from the point.
+ */
+class NearbyCarResource extends Resource<Car> {
+
+    private final double distanceKm;
+
+    NearbyCarResource(Car car, double distanceKm, Link... links) {
+        super(car, links);
+        this.distanceKm = distanceKm;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
@@ -0,0 +1,62 @@
+package com.udacity.vehicles.api;
+
+import io.swagger.annotations.ApiModelProperty;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Declares the point, radius and number of cars to find nearby.
+ */
+public class NearbyQuery {
+
+    @NotNull @DecimalMin("-90") @DecimalMax("90")
+    private Double lat;
+
+    @NotNull @DecimalMin("-180") @DecimalMax("180")
+    private Double lon;
+
+    @NotNull @DecimalMin(value = "0", inclusive = false) @DecimalMax("500")
+    private Double radiusKm;
+
+    @Min(1) @Max(100)
+    private int limit = 20;
+
+    @ApiModelProperty(value = "Latitude of the point in degrees", required = true)
+    public Double getLat() {
+        return lat;
+    }
+
+    public void setLat(Double lat) {
+        this.lat = lat;
+    }
+
+    @ApiModelProperty(value = "Longitude of the point in degrees", required = true)
+    public Double getLon() {
+        return lon;
+    }
+
+    public void setLon(Double lon) {
+        this.lon = lon;
+    }
+
+    @ApiModelProperty(value = "Greatest distance from the point in kilometers, up to 500", required = true)
+    public Double getRadiusKm() {
+        return radiusKm;
+    }
+
+    public void setRadiusKm(Double radiusKm) {
+        this.radiusKm = radiusKm;
+    }
+
+    @ApiModelProperty(value = "Greatest number of cars to return, up to 100")
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
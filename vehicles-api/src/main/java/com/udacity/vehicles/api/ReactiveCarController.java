@@ -0,0 +1,83 @@
+package com.udacity.vehicles.api;
+
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.service.CarService;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import springfox.documentation.annotations.ApiIgnore;
+
+/**
+ * Implements the read side of the Vehicles API without holding a request
+ * thread while the pricing and maps services answer.
+ *
+ * The handlers return a Mono, so Spring MVC releases the servlet thread and
+ * completes the response asynchronously once the price and address arrive.
+ * Enabled with `vehicles.reactive.enabled=true`.
+ */
+@RestController
+@RequestMapping("/reactive/cars")
+@ConditionalOnProperty(name = "vehicles.reactive.enabled", havingValue = "true")
+@Api(value="Vehicle Inventory API (non-blocking reads)")
+class ReactiveCarController {
+
+    private final CarService carService;
+    private final CarResourceAssembler assembler;
+
+    ReactiveCarController(CarService carService, CarResourceAssembler assembler) {
+        this.carService = carService;
+        this.assembler = assembler;
+    }
+
+    /**
+     * Lists one page of vehicles.
+     * @param pageable the page number, size and sort order to retrieve
+     * @return a Mono emitting the page of vehicles with links to the neighbouring pages
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "List all cars in the inventory without blocking",
+            notes = "Same as GET /cars using page numbers.")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "page", dataType = "int", paramType = "query",
+                    value = "Page number to retrieve (0..N)"),
+            @ApiImplicitParam(name = "size", dataType = "int", paramType = "query",
+                    value = "Number of cars per page"),
+            @ApiImplicitParam(name = "sort", dataType = "string", paramType = "query", allowMultiple = true,
+                    value = "Sort order in the format: property(,asc|desc), e.g. details.modelYear,desc")
+    })
+    Mono<PagedResources<Resource<Car>>> list(@ApiIgnore @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        // links are resolved from the current request, which is only bound to this thread
+        String carsHref = assembler.carsHref();
+        return carService.listAsync(pageable)
+                .map(page -> assembler.toPagedResources(page, carsHref));
+    }
+
+    /**
+     * Gets information of a specific car by ID.
+     * @param id the id number of the given vehicle
+     * @return a Mono emitting all information for the requested vehicle
+     */
+    @GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "Find a car by its vehicle id without blocking.",
+            notes = "The price and address are looked up at the same time.")
+    Mono<Resource<Car>> get(@ApiParam(value="id of the vehicle to find", required=true)
+                              @PathVariable Long id) {
+        String carsHref = assembler.carsHref();
+        return carService.findByIdAsync(id)
+                .map(car -> assembler.toResource(car, carsHref));
+    }
+}
@@ -0,0 +1,112 @@
+package com.udacity.vehicles.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import java.time.Duration;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Guards the calls to one downstream service with a timeout, a bulkhead
+ * and a circuit breaker.
+ *
+ * Each call must finish within the timeout, no more than the bulkhead's
+ * number of calls may be in flight at once, and once too many recent calls
+ * failed the circuit opens and calls are rejected straight away until it
+ * lets a few trial calls through again.  Rejected calls fail with
+ * {@link #isRejection(Throwable) a rejection}, so the clients fall back
+ * the same way as for any other error without waiting on the service.
+ */
+public class DownstreamPolicy {
+
+    private final Duration timeout;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    public DownstreamPolicy(Duration timeout, Bulkhead bulkhead, CircuitBreaker circuitBreaker) {
+        this.timeout = timeout;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Creates the policy of a downstream service, registering its bulkhead
+     * and circuit breaker under the service name so they show up in the metrics.
+     * @param name name of the downstream service
+     * @param timeout the longest a call may take
+     * @param maxConcurrentCalls the most calls in flight at once
+     * @param failureRateThreshold percentage of failed calls that opens the circuit
+     * @param slidingWindowSize number of recent calls the failure rate is taken over
+     * @param waitInOpenState how long an open circuit rejects calls
+     * @param bulkheads registry of the bulkheads
+     * @param circuitBreakers registry of the circuit breakers
+     * @return the created policy
+     */
+    public static DownstreamPolicy of(String name, Duration timeout, int maxConcurrentCalls,
+                                      float failureRateThreshold, int slidingWindowSize, Duration waitInOpenState,
+                                      BulkheadRegistry bulkheads, CircuitBreakerRegistry circuitBreakers) {
+        Bulkhead bulkhead = bulkheads.bulkhead(name, BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        CircuitBreaker circuitBreaker = circuitBreakers.circuitBreaker(name, CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(slidingWindowSize)
+                .waitDurationInOpenState(waitInOpenState)
+                .recordException(DownstreamPolicy::isFailure)
+                .build());
+        return new DownstreamPolicy(timeout, bulkhead, circuitBreaker);
+    }
+
+    /**
+     * Applies the timeout, bulkhead and circuit breaker to a call.
+     * The call is only made if both the circuit and the bulkhead let it through.
+     * @param call the request to the downstream service
+     * @param <T> the response type
+     * @return the guarded call
+     */
+    public <T> Mono<T> apply(Mono<T> call) {
+        return call
+                .timeout(timeout)
+                .transform(BulkheadOperator.of(bulkhead))
+                .transform(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    /**
+     * Tells whether a call failed because the policy rejected it
+     * rather than because of the downstream service.
+     * @param e the error the call failed with
+     * @return true if the circuit was open or the bulkhead full
+     */
+    public static boolean isRejection(Throwable e) {
+        return e instanceof CallNotPermittedException || e instanceof BulkheadFullException;
+    }
+
+    /**
+     * Only errors pointing at an unhealthy service count towards opening
+     * the circuit; a 4xx answer such as a vehicle without a price does not.
+     */
+    private static boolean isFailure(Throwable e) {
+        if (e instanceof WebClientResponseException) {
+            return ((WebClientResponseException) e).getStatusCode().is5xxServerError();
+        }
+        return !isRejection(e);
+    }
+}
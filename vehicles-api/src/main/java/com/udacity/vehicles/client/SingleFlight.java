@@ -0,0 +1,107 @@
+package com.udacity.vehicles.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Shares one downstream call between every caller asking for the same key
+ * while it is in flight.
+ *
+ * The first caller for a key makes the call; callers arriving before it
+ * completes subscribe to the same call and receive the same value or error.
+ * Once the call completes the key is free again, so nothing is kept beyond
+ * the call itself; put a cache in front to reuse results for longer.  A
+ * caller cancelling also frees the key: the call goes on for the callers
+ * still waiting, but later callers start a new one rather than joining a
+ * call nobody may be driving any more.
+ *
+ * Published as the `singleflight.requests` and `singleflight.coalesced`
+ * counters and the `singleflight.coalescing.ratio` gauge, tagged with the name.
+ * @param <K> the key identifying identical calls
+ * @param <V> the call result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter requests;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry registry) {
+        this.requests = Counter.builder("singleflight.requests")
+                .description("Calls asked for")
+                .tag("name", name)
+                .register(registry);
+        this.coalesced = Counter.builder("singleflight.coalesced")
+                .description("Calls answered by a call already in flight")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .description("Share of calls answered by a call already in flight")
+                .tag("name", name)
+                .register(registry);
+    }
+
+    /**
+     * Joins the call in flight for the key, or starts it.
+     * @param key identifies identical calls
+     * @param call makes the downstream call when none is in flight
+     * @return a Mono emitting the result of the shared call
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            requests.increment();
+            Mono<V> running = inFlight.get(key);
+            if (running != null) {
+                coalesced.increment();
+                return join(key, running);
+            }
+
+            // the key is freed as the result arrives, before it is passed
+            // on to the callers, so none of them can join a finished call
+            AtomicReference<Mono<V>> self = new AtomicReference<>();
+            Mono<V> started = Mono.defer(call)
+                    .doOnSuccess(value -> inFlight.remove(key, self.get()))
+                    .doOnError(e -> inFlight.remove(key, self.get()))
+                    .cache();
+            self.set(started);
+
+            running = inFlight.putIfAbsent(key, started);
+            if (running != null) {
+                coalesced.increment();
+                return join(key, running);
+            }
+            return join(key, started);
+        });
+    }
+
+    /**
+     * Subscribes a caller to the shared call, freeing the key if the caller
+     * cancels before the result arrives.
+     */
+    private Mono<V> join(K key, Mono<V> shared) {
+        return shared.doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                inFlight.remove(key, shared);
+            }
+        });
+    }
+
+    /**
+     * @return the number of calls currently in flight
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private double coalescingRatio() {
+        double total = requests.count();
+        return total == 0 ? 0 : coalesced.count() / total;
+    }
+}
@@ -0,0 +1,97 @@
+package com.udacity.vehicles.client.maps;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.udacity.vehicles.domain.Location;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches the addresses returned by the Maps service.
+ *
+ * Parked cars rarely move, so coordinates are rounded to
+ * `maps.cache.precision` decimal places and every location in
+ * the same cell shares one address.  Entries expire after
+ * `maps.cache.ttl` seconds and the least used entries are evicted
+ * once `maps.cache.maximum-size` is reached.  Hits, misses and
+ * evictions are published as the "maps.addresses" cache metrics.
+ */
+@Component
+public class AddressCache {
+
+    private final Cache<GeoKey, Address> cache;
+    private final double scale;
+
+    public AddressCache(@Value("${maps.cache.precision:4}") int precision,
+                        @Value("${maps.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${maps.cache.ttl:3600}") long ttlSeconds,
+                        MeterRegistry registry) {
+        this.scale = Math.pow(10, precision);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "maps.addresses");
+    }
+
+    /**
+     * @param location the coordinates to look up
+     * @return the cached address for the location's cell, or null if there is none
+     */
+    public Address get(Location location) {
+        return cache.getIfPresent(key(location));
+    }
+
+    /**
+     * @param location the coordinates the address was found for
+     * @param address the address returned by the Maps service
+     */
+    public void put(Location location, Address address) {
+        cache.put(key(location), address);
+    }
+
+    /**
+     * Rounds a location to the cell used as its cache key.
+     * @param location the coordinates to round
+     * @return the key shared by every location in the same cell
+     */
+    public GeoKey key(Location location) {
+        return new GeoKey(Math.round(location.getLat() * scale), Math.round(location.getLon() * scale));
+    }
+
+    /**
+     * Identifies a cell of rounded latitude and longitude.
+     */
+    public static final class GeoKey {
+
+        private final long lat;
+        private final long lon;
+
+        GeoKey(long lat, long lon) {
+            this.lat = lat;
+            this.lon = lon;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GeoKey)) {
+                return false;
+            }
+            GeoKey other = (GeoKey) o;
+            return lat == other.lat && lon == other.lon;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lat, lon);
+        }
+    }
+}
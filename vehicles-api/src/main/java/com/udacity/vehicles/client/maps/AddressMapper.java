@@ -0,0 +1,30 @@
+package com.udacity.vehicles.client.maps;
+
+import com.udacity.vehicles.domain.Location;
+
+/**
+ * Copies the address returned by the Maps service onto a location.
+ *
+ * Written out field by field rather than matched by reflection, as every
+ * car read goes through it.
+ */
+final class AddressMapper {
+
+    private AddressMapper() {
+    }
+
+    /**
+     * Sets the street, city, state and zip of the location from the address,
+     * keeping its latitude and longitude.
+     * @param address the address found for the location
+     * @param location the location to update
+     * @return the updated location
+     */
+    static Location copy(Address address, Location location) {
+        location.setAddress(address.getAddress());
+        location.setCity(address.getCity());
+        location.setState(address.getState());
+        location.setZip(address.getZip());
+        return location;
+    }
+}
@@ -1,12 +1,15 @@
 package com.udacity.vehicles.client.maps;
 
+import com.udacity.vehicles.client.DownstreamPolicy;
+import com.udacity.vehicles.client.SingleFlight;
 import com.udacity.vehicles.domain.Location;
-import java.util.Objects;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 /**
  * Implements a class to interface with the Maps Client for location data.
@@ -17,12 +20,18 @@ public class MapsClient {
     private static final Logger log = LoggerFactory.getLogger(MapsClient.class);
 
     private final WebClient client;
-    private final ModelMapper mapper;
+    private final AddressCache cache;
+    private final DownstreamPolicy policy;
+    private final SingleFlight<AddressCache.GeoKey, Address> lookups;
 
     public MapsClient(WebClient maps,
-            ModelMapper mapper) {
+            AddressCache cache,
+            @Qualifier("mapsPolicy") DownstreamPolicy policy,
+            MeterRegistry registry) {
         this.client = maps;
-        this.mapper = mapper;
+        this.cache = cache;
+        this.policy = policy;
+        this.lookups = new SingleFlight<>("maps.addresses", registry);
     }
 
     /**
@@ -32,23 +41,37 @@ public class MapsClient {
      *   or an exception message noting the Maps service is down
      */
     public Location getAddress(Location location) {
-        try {
-            Address address = client
-                    .get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/maps/")
-                            .queryParam("lat", location.getLat())
-                            .queryParam("lon", location.getLon())
-                            .build()
-                    )
-                    .retrieve().bodyToMono(Address.class).block();
-
-            mapper.map(Objects.requireNonNull(address), location);
+        return getAddressAsync(location).block();
+    }
 
-            return location;
-        } catch (Exception e) {
-            log.warn("Map service is down");
-            return location;
+    /**
+     * Gets an address from the Maps client without blocking the caller.
+     * Addresses already found for nearby coordinates are served from the
+     * cache.  If the Maps service is down, too slow or its circuit is open
+     * the location is emitted unchanged.  Concurrent lookups of locations
+     * in the same cache cell share one request.
+     * @param location An object containing "lat" and "lon" of location
+     * @return a Mono emitting the location updated with street, city, state and zip
+     */
+    public Mono<Location> getAddressAsync(Location location) {
+        Address cached = cache.get(location);
+        if (cached != null) {
+            return Mono.just(AddressMapper.copy(cached, location));
         }
+        return lookups.execute(cache.key(location), () -> client
+                        .get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/maps/")
+                                .queryParam("lat", location.getLat())
+                                .queryParam("lon", location.getLon())
+                                .build()
+                        )
+                        .retrieve().bodyToMono(Address.class)
+                        .transform(policy::apply)
+                        .doOnNext(address -> cache.put(location, address)))
+                .map(address -> AddressMapper.copy(address, location))
+                .doOnError(e -> !DownstreamPolicy.isRejection(e), e -> log.warn("Map service is down"))
+                .onErrorReturn(location)
+                .defaultIfEmpty(location);
     }
 }
@@ -0,0 +1,119 @@
+package com.udacity.vehicles.client.prices;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches formatted vehicle prices until the pricing service announces
+ * a change, or at the latest for `prices.cache.ttl` seconds.
+ *
+ * A lookup that started before an invalidation must not store the
+ * stale price it returns afterwards.  Each vehicle id therefore maps
+ * to a version counter that every invalidation increments; callers
+ * read the version before requesting a price and the price is only
+ * stored if the version is still the same.
+ *
+ * Each price is kept with the time it was stored, which bounds when the
+ * price last changed as far as this service can tell.
+ */
+@Component
+public class PriceCache {
+
+    private static final int VERSION_STRIPES = 1024;
+
+    private final Cache<Long, Entry> cache;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public PriceCache(@Value("${prices.cache.maximum-size:10000}") long maximumSize,
+                      @Value("${prices.cache.ttl:300}") long ttlSeconds,
+                      MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "prices");
+    }
+
+    /**
+     * @param vehicleId ID number of the vehicle
+     * @return the cached price, or null if there is none
+     */
+    public String get(Long vehicleId) {
+        Entry entry = cache.getIfPresent(vehicleId);
+        return entry == null ? null : entry.price;
+    }
+
+    /**
+     * @param vehicleId ID number of the vehicle
+     * @return the cached price and when it was stored, or null if there is none
+     */
+    public Entry getEntry(Long vehicleId) {
+        return cache.getIfPresent(vehicleId);
+    }
+
+    /**
+     * Reads the version to pass to {@link #put} once the price has been fetched.
+     * @param vehicleId ID number of the vehicle about to be priced
+     * @return the current version of the vehicle's price
+     */
+    public long version(Long vehicleId) {
+        return versions.get(stripe(vehicleId));
+    }
+
+    /**
+     * Stores a price unless it was invalidated since `version` was read.
+     * @param vehicleId ID number of the vehicle
+     * @param price the formatted price returned by the pricing service
+     * @param version the version read before the price was requested
+     */
+    public void put(Long vehicleId, String price, long version) {
+        int stripe = stripe(vehicleId);
+        // compute() holds the entry lock, so an invalidate() cannot slip
+        // in between the version check and the write.
+        cache.asMap().compute(vehicleId,
+                (id, current) -> versions.get(stripe) == version ? new Entry(price, Instant.now()) : current);
+    }
+
+    /**
+     * Evicts the price of a vehicle and rejects any lookup still in flight.
+     * @param vehicleId ID number of the vehicle whose price changed
+     */
+    public void invalidate(Long vehicleId) {
+        versions.incrementAndGet(stripe(vehicleId));
+        cache.asMap().remove(vehicleId);
+    }
+
+    private int stripe(Long vehicleId) {
+        return Math.floorMod(vehicleId.hashCode(), VERSION_STRIPES);
+    }
+
+    /**
+     * A cached price and the time it was stored.
+     */
+    public static final class Entry {
+
+        private final String price;
+        private final Instant storedAt;
+
+        public Entry(String price, Instant storedAt) {
+            this.price = price;
+            this.storedAt = storedAt;
+        }
+
+        public String getPrice() {
+            return price;
+        }
+
+        public Instant getStoredAt() {
+            return storedAt;
+        }
+    }
+}
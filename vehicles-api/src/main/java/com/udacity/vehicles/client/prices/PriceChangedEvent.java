@@ -0,0 +1,33 @@
+package com.udacity.vehicles.client.prices;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents the notice, published by the pricing service, that
+ * the price of a vehicle was created, changed or deleted.
+ */
+public class PriceChangedEvent {
+
+    /**
+     * Type id the pricing service writes with each message.
+     */
+    public static final String TYPE_ID = "PriceChanged";
+
+    @JsonProperty("vehicle_id")
+    private Long vehicleId;
+
+    public PriceChangedEvent() {
+    }
+
+    public PriceChangedEvent(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+}
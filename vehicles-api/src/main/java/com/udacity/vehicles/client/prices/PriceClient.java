@@ -1,9 +1,23 @@
 package com.udacity.vehicles.client.prices;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.udacity.vehicles.client.DownstreamPolicy;
+import com.udacity.vehicles.client.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Implements a class to interface with the Pricing Client for price data.
@@ -13,16 +27,28 @@ public class PriceClient {
 
     private static final Logger log = LoggerFactory.getLogger(PriceClient.class);
 
+    /**
+     * Returned in place of a price whenever the pricing service cannot supply one.
+     */
+    public static final String PRICE_UNAVAILABLE = "(consult price)";
+
     private final WebClient client;
+    private final PriceCache cache;
+    private final DownstreamPolicy policy;
+    private final SingleFlight<Long, Price> lookups;
+    private final int idsPerRequest;
 
-    public PriceClient(WebClient pricing) {
+    public PriceClient(WebClient pricing, PriceCache cache,
+                       @Qualifier("pricingPolicy") DownstreamPolicy policy,
+                       MeterRegistry registry,
+                       @Value("${prices.lookup.ids-per-request:100}") int idsPerRequest) {
         this.client = pricing;
+        this.cache = cache;
+        this.policy = policy;
+        this.lookups = new SingleFlight<>("prices", registry);
+        this.idsPerRequest = idsPerRequest;
     }
 
-    // In a real-world application we'll want to add some resilience
-    // to this method with retries/CB/failover capabilities
-    // We may also want to cache the results so we don't need to
-    // do a request every time
     /**
      * Gets a vehicle price from the pricing client, given vehicle ID.
      * @param vehicleId ID number of the vehicle for which to get the price
@@ -31,22 +57,121 @@ public class PriceClient {
      *   service is down.
      */
     public String getPrice(Long vehicleId) {
-        try {
-            Price price = client
-                    .get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path("/prices/search/findByVehicleId")
-                            .queryParam("vehicle_id", vehicleId)
-                            .build()
-                    )
-                    .retrieve().bodyToMono(Price.class).block();
-
-            return String.format("%s %s", price.getCurrency(), price.getPrice());
-
-        } catch (Exception e) {
-            log.error("Unexpected error retrieving price for vehicle {}", vehicleId, e);
+        return getPriceAsync(vehicleId).block();
+    }
+
+    /**
+     * Gets a vehicle price from the pricing client without blocking the caller.
+     * Cached prices are returned without a request.  Failures, timeouts and
+     * calls rejected by the pricing policy are mapped to the "(consult price)"
+     * note so callers composing several lookups never see an error signal.
+     * Concurrent lookups of the same vehicle share one request.
+     * @param vehicleId ID number of the vehicle for which to get the price
+     * @return a Mono emitting the currency and price of the requested vehicle
+     *   or the note that the price is unavailable
+     */
+    public Mono<String> getPriceAsync(Long vehicleId) {
+        String cached = cache.get(vehicleId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        long version = cache.version(vehicleId);
+        return lookups.execute(vehicleId, () -> client
+                        .get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/prices/search/findByVehicleId")
+                                .queryParam("vehicle_id", vehicleId)
+                                .build()
+                        )
+                        .retrieve().bodyToMono(Price.class)
+                        .transform(policy::apply))
+                .map(PriceClient::format)
+                .doOnNext(price -> cache.put(vehicleId, price, version))
+                .doOnError(e -> !DownstreamPolicy.isRejection(e), e -> log.error("Unexpected error retrieving price for vehicle {}", vehicleId, e))
+                .onErrorReturn(PRICE_UNAVAILABLE)
+                .defaultIfEmpty(PRICE_UNAVAILABLE);
+    }
+
+    /**
+     * Gets a vehicle price only if it is cached, without any request.
+     * @param vehicleId ID number of the vehicle
+     * @return the cached price and when it was stored, or null if it is not cached
+     */
+    public PriceCache.Entry getCachedPrice(Long vehicleId) {
+        return cache.getEntry(vehicleId);
+    }
+
+    /**
+     * Gets the prices of several vehicles with batched requests to the pricing client.
+     * @param vehicleIds ID numbers of the vehicles for which to get the price
+     * @return Currency and price keyed by vehicle ID; vehicles without a
+     *   price are missing from the map, as are uncached vehicles if the service is down.
+     */
+    public Map<Long, String> getPrices(Collection<Long> vehicleIds) {
+        return getPricesAsync(vehicleIds).block();
+    }
+
+    /**
+     * Gets the prices of several vehicles without blocking the caller.
+     * Cached prices are used as they are and the rest are fetched
+     * `prices.lookup.ids-per-request` at a time, keeping the ids in the query
+     * string of each request well under the server's header size limit.
+     * Failed requests are logged and leave their vehicles without a price.
+     * @param vehicleIds ID numbers of the vehicles for which to get the price
+     * @return a Mono emitting currency and price keyed by vehicle ID
+     */
+    public Mono<Map<Long, String>> getPricesAsync(Collection<Long> vehicleIds) {
+        Map<Long, String> prices = new HashMap<>();
+        Map<Long, Long> versions = new HashMap<>();
+        for (Long vehicleId : vehicleIds) {
+            String cached = cache.get(vehicleId);
+            if (cached != null) {
+                prices.put(vehicleId, cached);
+            } else {
+                versions.put(vehicleId, cache.version(vehicleId));
+            }
         }
-        return "(consult price)";
+        if (versions.isEmpty()) {
+            return Mono.just(prices);
+        }
+
+        // flatMap hands on one list at a time, so the maps need no locking
+        return Flux.fromIterable(new ArrayList<>(versions.keySet()))
+                .buffer(idsPerRequest)
+                .flatMap(this::fetchPrices)
+                .doOnNext(list -> {
+                    for (Price price : list) {
+                        Long version = versions.get(price.getVehicleId());
+                        if (version != null && !prices.containsKey(price.getVehicleId())) {
+                            String formatted = format(price);
+                            cache.put(price.getVehicleId(), formatted, version);
+                            prices.put(price.getVehicleId(), formatted);
+                        }
+                    }
+                })
+                .then(Mono.fromSupplier(() -> prices));
     }
 
+    /**
+     * Fetches the prices of one batch of vehicles.
+     * @return the prices found, or none if the request failed
+     */
+    private Mono<List<Price>> fetchPrices(List<Long> vehicleIds) {
+        return client
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/prices/search/findByVehicleIdIn")
+                        .queryParam("vehicle_ids", vehicleIds.toArray())
+                        .build()
+                )
+                .retrieve().bodyToMono(PriceList.class)
+                .transform(policy::apply)
+                .map(PriceList::getPrices)
+                .doOnError(e -> !DownstreamPolicy.isRejection(e), e -> log.error("Unexpected error retrieving prices for {} vehicles", vehicleIds.size(), e))
+                .onErrorReturn(List.of());
+    }
+
+    private static String format(Price price) {
+        return String.format("%s %s", price.getCurrency(), price.getPrice());
+    }
 }
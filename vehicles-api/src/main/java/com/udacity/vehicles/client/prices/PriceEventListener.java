@@ -0,0 +1,27 @@
+package com.udacity.vehicles.client.prices;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached prices when the pricing service announces a change.
+ */
+@Component
+public class PriceEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceEventListener.class);
+
+    private final PriceCache cache;
+
+    public PriceEventListener(PriceCache cache) {
+        this.cache = cache;
+    }
+
+    @JmsListener(destination = "${prices.events.destination:price.changes}")
+    public void onPriceChanged(PriceChangedEvent event) {
+        log.debug("Price of vehicle {} changed", event.getVehicleId());
+        cache.invalidate(event.getVehicleId());
+    }
+}
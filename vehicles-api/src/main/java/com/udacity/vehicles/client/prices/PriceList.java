@@ -0,0 +1,32 @@
+package com.udacity.vehicles.client.prices;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the HAL collection returned by the pricing service
+ * when the prices of several vehicles are requested at once.
+ */
+public class PriceList {
+
+    @JsonProperty("_embedded")
+    private Embedded embedded = new Embedded();
+
+    public PriceList() {
+    }
+
+    public List<Price> getPrices() {
+        return embedded.prices;
+    }
+
+    /**
+     * Holds the "prices" relation inside the "_embedded" section.
+     */
+    static class Embedded {
+
+        @JsonProperty("prices")
+        private List<Price> prices = new ArrayList<>();
+    }
+}
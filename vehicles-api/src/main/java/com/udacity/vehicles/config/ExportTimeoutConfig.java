@@ -0,0 +1,61 @@
+package com.udacity.vehicles.config;
+
+import java.util.concurrent.Callable;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Gives the streaming export its own timeout.
+ *
+ * Streaming a large inventory takes longer than the container allows an
+ * asynchronous response by default.  Rather than raising
+ * `spring.mvc.async.request-timeout` for every asynchronous response, the
+ * timeout of `/cars/export` alone is set just before its response is
+ * handed to the async executor.
+ */
+@Configuration
+public class ExportTimeoutConfig implements WebMvcConfigurer {
+
+    static final String EXPORT_PATH = "/cars/export";
+
+    private final long exportTimeout;
+
+    public ExportTimeoutConfig(@Value("${vehicles.export.timeout:600000}") long exportTimeout) {
+        this.exportTimeout = exportTimeout;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new ExportTimeout(exportTimeout));
+    }
+
+    /**
+     * Sets the timeout of export requests before asynchronous processing
+     * starts, which is the last moment the container takes it into account.
+     */
+    private static final class ExportTimeout implements CallableProcessingInterceptor {
+
+        private final UrlPathHelper paths = new UrlPathHelper();
+        private final long timeout;
+
+        ExportTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+            if (request instanceof AsyncWebRequest && servletRequest != null
+                    && EXPORT_PATH.equals(paths.getPathWithinApplication(servletRequest))) {
+                ((AsyncWebRequest) request).setTimeout(timeout);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.udacity.vehicles.config;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Sets the HTTP caching headers of the car endpoints.
+ *
+ * Each endpoint gets the Cache-Control policy configured for it.  Single
+ * cars carry their own weak ETag and Last-Modified date; listings get a
+ * strong ETag, a digest of the exact response, so a client sending it back
+ * in If-None-Match gets an empty 304 response instead of the same page again.
+ */
+@Configuration
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+    private final String carPolicy;
+    private final String carsPolicy;
+    private final String exportPolicy;
+
+    public HttpCacheConfig(@Value("${vehicles.cache-control.car:no-cache}") String carPolicy,
+                           @Value("${vehicles.cache-control.cars:no-cache}") String carsPolicy,
+                           @Value("${vehicles.cache-control.export:no-store}") String exportPolicy) {
+        this.carPolicy = carPolicy;
+        this.carsPolicy = carsPolicy;
+        this.exportPolicy = exportPolicy;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new CacheControlInterceptor(carsPolicy))
+                .addPathPatterns("/cars", "/cars/search", "/cars/near");
+        registry.addInterceptor(new CacheControlInterceptor(exportPolicy))
+                .addPathPatterns("/cars/export");
+        registry.addInterceptor(new CacheControlInterceptor(carPolicy))
+                .addPathPatterns("/cars/*")
+                .excludePathPatterns("/cars/search", "/cars/near", "/cars/export", "/cars/batch");
+    }
+
+    /**
+     * Tags the listings with a digest of their content.  The response is
+     * buffered to compute it, so the streaming export is left out.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listingETags() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/cars", "/cars/search", "/cars/near");
+        return registration;
+    }
+
+    /**
+     * Sets a Cache-Control header on the GET and HEAD responses of the
+     * endpoints it is registered for.
+     */
+    private static final class CacheControlInterceptor implements HandlerInterceptor {
+
+        private final String policy;
+
+        CacheControlInterceptor(String policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            if ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, policy);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.udacity.vehicles.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes coordinates as geohashes and finds the geohash cells covering
+ * an area.
+ *
+ * A geohash splits the longitude and latitude ranges in halves, one bit
+ * at a time, alternately, and writes every 5 bits as a base 32 character.
+ * Each character thus narrows the cell down by a factor of 32, and every
+ * point of a cell has a geohash starting with the geohash of the cell, so
+ * the points inside a cell are one index range scan away.
+ */
+public final class Geohash {
+
+    /**
+     * Characters of the stored geohashes; cells of 12 characters are a few
+     * centimeters wide.
+     */
+    public static final int MAX_PRECISION = 12;
+
+    /**
+     * Mean radius of the Earth in kilometers.
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private Geohash() {
+    }
+
+    /**
+     * Encodes a point.
+     * @param lat the latitude in degrees
+     * @param lon the longitude in degrees
+     * @param precision the number of characters, from 1 to {@link #MAX_PRECISION}
+     * @return the geohash of the cell holding the point
+     */
+    public static String encode(double lat, double lon, int precision) {
+        return cell(latIndex(lat, precision), lonIndex(lon, precision), precision);
+    }
+
+    /**
+     * Finds the cells covering every point within a distance of a center,
+     * using the longest geohashes for which at most `maxCells` are needed.
+     * @param lat the latitude of the center in degrees
+     * @param lon the longitude of the center in degrees
+     * @param radiusKm the distance from the center in kilometers
+     * @param maxCells the number of cells to stay under, unless even
+     *   single character cells need more
+     * @return the geohashes of the cells
+     */
+    public static List<String> cover(double lat, double lon, double radiusKm, int maxCells) {
+        double dLat = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        double south = Math.max(lat - dLat, -90);
+        double north = Math.min(lat + dLat, 90);
+
+        // the widest longitude span of the circle, unless it holds a pole
+        double sinSpan = Math.sin(radiusKm / EARTH_RADIUS_KM) / Math.cos(Math.toRadians(lat));
+        boolean allLongitudes = lat - dLat <= -90 || lat + dLat >= 90 || sinSpan >= 1;
+        double dLon = allLongitudes ? 180 : Math.toDegrees(Math.asin(sinSpan));
+
+        int precision = 1;
+        while (precision < MAX_PRECISION
+                && count(south, north, lon, dLon, allLongitudes, precision + 1) <= maxCells) {
+            precision++;
+        }
+
+        long lonCells = 1L << lonBits(precision);
+        long fromLon = allLongitudes ? 0 : lonIndex(lon - dLon, precision);
+        long lonCount = allLongitudes ? lonCells : lonCount(lon, dLon, precision);
+        List<String> cells = new ArrayList<>();
+        for (long i = latIndex(south, precision); i <= latIndex(north, precision); i++) {
+            for (long j = 0; j < lonCount; j++) {
+                cells.add(cell(i, (fromLon + j) % lonCells, precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Measures the great circle distance between two points.
+     * @return the distance in kilometers
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinLat = Math.sin((phi2 - phi1) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = sinLat * sinLat + Math.cos(phi1) * Math.cos(phi2) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static long count(double south, double north, double lon, double dLon, boolean allLongitudes,
+                              int precision) {
+        long latCount = latIndex(north, precision) - latIndex(south, precision) + 1;
+        return latCount * (allLongitudes ? 1L << lonBits(precision) : lonCount(lon, dLon, precision));
+    }
+
+    /**
+     * Counts the columns of cells from the west to the east edge, going
+     * east across the antimeridian if need be.
+     */
+    private static long lonCount(double lon, double dLon, int precision) {
+        long lonCells = 1L << lonBits(precision);
+        long count = Math.floorMod(lonIndex(lon + dLon, precision) - lonIndex(lon - dLon, precision), lonCells) + 1;
+        return Math.min(count, lonCells);
+    }
+
+    private static long latIndex(double lat, int precision) {
+        return index(lat + 90, 180, latBits(precision));
+    }
+
+    private static long lonIndex(double lon, int precision) {
+        // wrap around the antimeridian into [0, 360)
+        double offset = lon + 180;
+        return index(offset - 360 * Math.floor(offset / 360), 360, lonBits(precision));
+    }
+
+    private static long index(double offset, double range, int bits) {
+        long cells = 1L << bits;
+        return Math.min((long) (offset / range * cells), cells - 1);
+    }
+
+    /**
+     * Writes the geohash of a cell, interleaving its longitude and latitude
+     * indexes bit by bit, longitude first.
+     */
+    private static String cell(long latIndex, long lonIndex, int precision) {
+        int latBit = latBits(precision);
+        int lonBit = lonBits(precision);
+        char[] hash = new char[precision];
+        for (int c = 0; c < precision; c++) {
+            int value = 0;
+            for (int b = 0; b < 5; b++) {
+                boolean isLon = (c * 5 + b) % 2 == 0;
+                long bit = isLon ? (lonIndex >>> --lonBit) & 1 : (latIndex >>> --latBit) & 1;
+                value = (value << 1) | (int) bit;
+            }
+            hash[c] = BASE32[value];
+        }
+        return new String(hash);
+    }
+
+    private static int lonBits(int precision) {
+        return (precision * 5 + 1) / 2;
+    }
+
+    private static int latBits(int precision) {
+        return precision * 5 / 2;
+    }
+}
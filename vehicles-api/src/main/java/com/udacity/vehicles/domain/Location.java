@@ -1,9 +1,11 @@
 package com.udacity.vehicles.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.udacity.vehicles.domain.car.Car;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 
+import javax.persistence.Column;
 import javax.persistence.Embeddable;
 import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
@@ -12,7 +14,8 @@ import javax.validation.constraints.NotNull;
  * Stores information about a given location.
  * Latitude and longitude must be provided, while other
  * location information must be gathered each time from
- * the maps API.
+ * the maps API.  The geohash of the coordinates is stored
+ * along with them, so nearby locations can be found by prefix.
  */
 @Embeddable
 @ApiModel(parent = Car.class, description = "Address, longitude and latitude of the vehicle - (system generated)")
@@ -24,6 +27,10 @@ public class Location {
     @NotNull
     private Double lon;
 
+    @JsonIgnore
+    @Column(length = Geohash.MAX_PRECISION)
+    private String geohash;
+
     @Transient
     private String address;
 
@@ -52,6 +59,20 @@ public class Location {
         return lon;
     }
 
+    @JsonIgnore
+    @ApiModelProperty(hidden = true)
+    public String getGeohash() {
+        return geohash;
+    }
+
+    /**
+     * Computes the geohash of the latitude and longitude; called before
+     * the location is saved.
+     */
+    public void updateGeohash() {
+        geohash = lat == null || lon == null ? null : Geohash.encode(lat, lon, Geohash.MAX_PRECISION);
+    }
+
     public String getAddress() {
         return address;
     }
@@ -9,7 +9,13 @@ import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -22,14 +28,29 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 /**
  * Declares the Car class, related variables and methods.
+ *
+ * Every column a search may filter on is indexed, including those of the
+ * embedded details and location, which only the owning table can declare.
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "car_condition", columnList = "condition"),
+        @Index(name = "car_manufacturer_model", columnList = "manufacturer_code, model"),
+        @Index(name = "car_body", columnList = "body"),
+        @Index(name = "car_model_year", columnList = "modelYear"),
+        @Index(name = "car_mileage", columnList = "mileage"),
+        @Index(name = "car_location", columnList = "lat, lon"),
+        @Index(name = "car_geohash", columnList = "geohash")
+})
 @EntityListeners(AuditingEntityListener.class)
 @ApiModel(description = "Represents a car for sale in inventory")
 public class Car {
 
+    // Ids are taken from a sequence 50 at a time, so inserts need no
+    // round trip for their id and can be sent to the database in batches.
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "car_id")
+    @SequenceGenerator(name = "car_id", sequenceName = "car_id_seq", allocationSize = 50)
     private Long id;
 
     @CreatedDate
@@ -53,6 +74,14 @@ public class Car {
     @Transient
     private String price;
 
+    @PrePersist
+    @PreUpdate
+    void updateGeohash() {
+        if (location != null) {
+            location.updateGeohash();
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,211 @@
+package com.udacity.vehicles.domain.car;
+
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import io.swagger.annotations.ApiModelProperty;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Declares the filters a car search may combine; unset filters match
+ * every car.
+ *
+ * Text filters match exactly, so that each filter can be answered from
+ * the index on its column.  The bounding box takes all four of `south`,
+ * `west`, `north` and `east`; a box whose west edge lies east of its east
+ * edge crosses the antimeridian.
+ */
+public class CarFilter {
+
+    private Condition condition;
+    private Integer manufacturer;
+    private String model;
+    private String body;
+    private Integer minModelYear;
+    private Integer maxModelYear;
+    private Integer minMileage;
+    private Integer maxMileage;
+
+    @DecimalMin("-90") @DecimalMax("90")
+    private Double south;
+
+    @DecimalMin("-180") @DecimalMax("180")
+    private Double west;
+
+    @DecimalMin("-90") @DecimalMax("90")
+    private Double north;
+
+    @DecimalMin("-180") @DecimalMax("180")
+    private Double east;
+
+    /**
+     * Builds the query restricting cars to those matching every set filter.
+     * @return the specification for `CarRepository.findAll`
+     */
+    public Specification<Car> toSpecification() {
+        return (root, query, builder) -> {
+            Path<Details> details = root.get("details");
+            Path<Location> location = root.get("location");
+            List<Predicate> predicates = new ArrayList<>();
+            if (condition != null) {
+                predicates.add(builder.equal(root.get("condition"), condition));
+            }
+            if (manufacturer != null) {
+                predicates.add(builder.equal(details.get("manufacturer").get("code"), manufacturer));
+            }
+            if (model != null) {
+                predicates.add(builder.equal(details.get("model"), model));
+            }
+            if (body != null) {
+                predicates.add(builder.equal(details.get("body"), body));
+            }
+            if (minModelYear != null) {
+                predicates.add(builder.greaterThanOrEqualTo(details.get("modelYear"), minModelYear));
+            }
+            if (maxModelYear != null) {
+                predicates.add(builder.lessThanOrEqualTo(details.get("modelYear"), maxModelYear));
+            }
+            if (minMileage != null) {
+                predicates.add(builder.greaterThanOrEqualTo(details.get("mileage"), minMileage));
+            }
+            if (maxMileage != null) {
+                predicates.add(builder.lessThanOrEqualTo(details.get("mileage"), maxMileage));
+            }
+            if (hasBoundingBox()) {
+                Path<Double> lat = location.get("lat");
+                Path<Double> lon = location.get("lon");
+                predicates.add(builder.between(lat, south, north));
+                predicates.add(west <= east
+                        ? builder.between(lon, west, east)
+                        : builder.or(builder.greaterThanOrEqualTo(lon, west), builder.lessThanOrEqualTo(lon, east)));
+            }
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private boolean hasBoundingBox() {
+        return south != null && west != null && north != null && east != null;
+    }
+
+    @AssertTrue(message = "needs all of south, west, north and east, with south not above north")
+    private boolean isBoundingBox() {
+        if (south == null && west == null && north == null && east == null) {
+            return true;
+        }
+        return hasBoundingBox() && south <= north;
+    }
+
+    @ApiModelProperty(value = "Only cars in this condition")
+    public Condition getCondition() {
+        return condition;
+    }
+
+    public void setCondition(Condition condition) {
+        this.condition = condition;
+    }
+
+    @ApiModelProperty(value = "Only cars of the manufacturer with this code (e.g. 101)")
+    public Integer getManufacturer() {
+        return manufacturer;
+    }
+
+    public void setManufacturer(Integer manufacturer) {
+        this.manufacturer = manufacturer;
+    }
+
+    @ApiModelProperty(value = "Only cars of this model (e.g. Impala)")
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    @ApiModelProperty(value = "Only cars with this body type (e.g. sedan)")
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    @ApiModelProperty(value = "Only cars of this model year or later")
+    public Integer getMinModelYear() {
+        return minModelYear;
+    }
+
+    public void setMinModelYear(Integer minModelYear) {
+        this.minModelYear = minModelYear;
+    }
+
+    @ApiModelProperty(value = "Only cars of this model year or earlier")
+    public Integer getMaxModelYear() {
+        return maxModelYear;
+    }
+
+    public void setMaxModelYear(Integer maxModelYear) {
+        this.maxModelYear = maxModelYear;
+    }
+
+    @ApiModelProperty(value = "Only cars with at least this mileage")
+    public Integer getMinMileage() {
+        return minMileage;
+    }
+
+    public void setMinMileage(Integer minMileage) {
+        this.minMileage = minMileage;
+    }
+
+    @ApiModelProperty(value = "Only cars with at most this mileage")
+    public Integer getMaxMileage() {
+        return maxMileage;
+    }
+
+    public void setMaxMileage(Integer maxMileage) {
+        this.maxMileage = maxMileage;
+    }
+
+    @ApiModelProperty(value = "Southern edge of the bounding box, in degrees of latitude")
+    public Double getSouth() {
+        return south;
+    }
+
+    public void setSouth(Double south) {
+        this.south = south;
+    }
+
+    @ApiModelProperty(value = "Western edge of the bounding box, in degrees of longitude")
+    public Double getWest() {
+        return west;
+    }
+
+    public void setWest(Double west) {
+        this.west = west;
+    }
+
+    @ApiModelProperty(value = "Northern edge of the bounding box, in degrees of latitude")
+    public Double getNorth() {
+        return north;
+    }
+
+    public void setNorth(Double north) {
+        this.north = north;
+    }
+
+    @ApiModelProperty(value = "Eastern edge of the bounding box, in degrees of longitude")
+    public Double getEast() {
+        return east;
+    }
+
+    public void setEast(Double east) {
+        this.east = east;
+    }
+}
@@ -1,9 +1,67 @@
 package com.udacity.vehicles.domain.car;
 
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Reads and writes cars.  Queries returning several cars join fetch their
+ * manufacturer, so it is read in the same select rather than with one more
+ * select per manufacturer.  Searches by {@link CarFilter} go through
+ * `findAll(Specification, Pageable)`, where manufacturers come from the
+ * second-level cache instead.
+ */
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
 
+    @Override
+    @Query("select c from Car c join fetch c.details.manufacturer")
+    List<Car> findAll();
+
+    @Override
+    @Query(value = "select c from Car c join fetch c.details.manufacturer",
+            countQuery = "select count(c) from Car c")
+    Page<Car> findAll(Pageable pageable);
+
+    /**
+     * Seeks forward past a known car id; the primary key index is used
+     * instead of skipping over every preceding row as OFFSET does.
+     * @param id cars with a greater id are returned
+     * @param pageable limits the number of cars returned
+     * @return the cars following the given id in ascending id order
+     */
+    @Query("select c from Car c join fetch c.details.manufacturer where c.id > :id order by c.id asc")
+    List<Car> findByIdGreaterThanOrderByIdAsc(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Seeks backward before a known car id.
+     * @param id cars with a smaller id are returned
+     * @param pageable limits the number of cars returned
+     * @return the cars preceding the given id in descending id order
+     */
+    @Query("select c from Car c join fetch c.details.manufacturer where c.id < :id order by c.id desc")
+    List<Car> findByIdLessThanOrderByIdDesc(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Reads every car following a known car id through an open cursor,
+     * fetching rows from the database a few hundred at a time.  The
+     * stream must be consumed and closed inside a transaction.
+     * @param id cars with a greater id are returned
+     * @return the cars following the given id in ascending id order
+     */
+    @Query("select c from Car c join fetch c.details.manufacturer where c.id > :id order by c.id asc")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    Stream<Car> streamByIdGreaterThanOrderByIdAsc(@Param("id") Long id);
+
+    boolean existsByIdGreaterThan(Long id);
+
+    boolean existsByIdLessThan(Long id);
 }
@@ -4,13 +4,25 @@ import com.udacity.vehicles.domain.car.Car;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
 /**
  * Declares class to hold car manufacturer information.
+ *
+ * Manufacturers are reference data that never change once created, so
+ * they are kept in the read-only `manufacturer` region of the second-level
+ * cache and shared by every session instead of being selected again.
+ * Hibernate treats them as immutable and never writes changes back.
  */
 @Entity
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "manufacturer")
 @ApiModel(parent = Car.class, description = "Represents the manufacturing brand of the Car")
 public class Manufacturer {
 
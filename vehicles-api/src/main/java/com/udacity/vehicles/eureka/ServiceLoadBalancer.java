@@ -0,0 +1,237 @@
+package com.udacity.vehicles.eureka;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spreads the requests of a Web Client over every registered instance of a service.
+ *
+ * Each request is sent to the instance picked by the {@link Strategy},
+ * replacing the scheme, host and port of the request url.  The instances are
+ * refreshed from the {@link DiscoveryClient} whenever the Eureka client
+ * fetches the registry, so new instances start taking traffic within one
+ * registry fetch.  An instance failing several requests in a row (connection
+ * errors, 5xx answers, or no answer within the response timeout) is ejected
+ * for a while; if every instance is ejected they are all used again rather
+ * than failing every request.  Requests cancelled by their caller say
+ * nothing about the instance and are not counted.
+ * Without any registered instance, requests go to the local endpoint.
+ */
+public class ServiceLoadBalancer implements ExchangeFilterFunction {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceLoadBalancer.class);
+
+    /**
+     * How the instance of each request is picked.
+     */
+    public enum Strategy {
+        /** Each instance in turn. */
+        ROUND_ROBIN,
+        /** The instance with the fewest requests in flight, in turn among ties. */
+        LEAST_OUTSTANDING
+    }
+
+    private final DiscoveryClient discoveryClient;
+    private final boolean connectToEureka;
+    private final String serviceName;
+    private final URI localEndpoint;
+    private final Strategy strategy;
+    private final int failuresToEject;
+    private final Duration ejectionTime;
+    private final Duration responseTimeout;
+    private final Clock clock;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<Instance> instances = Collections.emptyList();
+
+    public ServiceLoadBalancer(DiscoveryClient discoveryClient, boolean connectToEureka, String serviceName,
+                               String localEndpoint, Strategy strategy, int failuresToEject, Duration ejectionTime,
+                               Duration responseTimeout) {
+        this(discoveryClient, connectToEureka, serviceName, localEndpoint, strategy,
+                failuresToEject, ejectionTime, responseTimeout, Clock.systemUTC());
+    }
+
+    ServiceLoadBalancer(DiscoveryClient discoveryClient, boolean connectToEureka, String serviceName,
+                        String localEndpoint, Strategy strategy, int failuresToEject, Duration ejectionTime,
+                        Duration responseTimeout, Clock clock) {
+        this.discoveryClient = discoveryClient;
+        this.connectToEureka = connectToEureka;
+        this.serviceName = serviceName;
+        this.localEndpoint = URI.create(localEndpoint);
+        this.strategy = strategy;
+        this.failuresToEject = failuresToEject;
+        this.ejectionTime = ejectionTime;
+        this.responseTimeout = responseTimeout;
+        this.clock = clock;
+        refresh();
+    }
+
+    /**
+     * Reloads the instances from the discovery client, keeping the
+     * in-flight counts and ejections of the instances still registered.
+     */
+    @EventListener(HeartbeatEvent.class)
+    public void refresh() {
+        if (!connectToEureka) {
+            return;
+        }
+        List<ServiceInstance> registered = discoveryClient.getInstances(serviceName);
+        Map<URI, Instance> known = new HashMap<>();
+        instances.forEach(instance -> known.put(instance.uri, instance));
+
+        List<Instance> refreshed = new ArrayList<>();
+        for (ServiceInstance serviceInstance : registered) {
+            Instance instance = known.get(serviceInstance.getUri());
+            refreshed.add(instance != null ? instance : new Instance(serviceInstance.getUri()));
+        }
+        if (refreshed.size() != instances.size()) {
+            log.info("{} instances of {}: {}", refreshed.size(), serviceName,
+                    refreshed.stream().map(instance -> instance.uri.toString()).collect(Collectors.joining(", ")));
+        }
+        instances = Collections.unmodifiableList(refreshed);
+    }
+
+    /**
+     * Picks the instance for the next request.
+     * @return the chosen instance, or empty if none is registered
+     */
+    public Optional<Instance> choose() {
+        List<Instance> all = instances;
+        if (all.isEmpty()) {
+            return Optional.empty();
+        }
+        long now = clock.millis();
+        List<Instance> healthy = all.stream()
+                .filter(instance -> !instance.isEjected(now))
+                .collect(Collectors.toList());
+        List<Instance> candidates = healthy.isEmpty() ? all : healthy;
+
+        int start = Math.floorMod(next.getAndIncrement(), candidates.size());
+        if (strategy == Strategy.ROUND_ROBIN) {
+            return Optional.of(candidates.get(start));
+        }
+        Instance least = candidates.get(start);
+        for (int i = 1; i < candidates.size(); i++) {
+            Instance candidate = candidates.get((start + i) % candidates.size());
+            if (candidate.outstanding.get() < least.outstanding.get()) {
+                least = candidate;
+            }
+        }
+        return Optional.of(least);
+    }
+
+    /**
+     * Gives the url of a registered instance, preferring one that is not
+     * ejected, without counting as a pick of the {@link Strategy}.
+     * @return the url of a registered instance, or the local endpoint
+     */
+    public String lookup() {
+        long now = clock.millis();
+        List<Instance> all = instances;
+        return all.stream()
+                .filter(instance -> !instance.isEjected(now))
+                .findFirst()
+                .or(() -> all.stream().findFirst())
+                .map(instance -> instance.uri)
+                .orElse(localEndpoint)
+                .toString();
+    }
+
+    /**
+     * All registered instances, ejected ones included.
+     * @return the instances
+     */
+    public List<Instance> getInstances() {
+        return instances;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction exchange) {
+        Optional<Instance> chosen = choose();
+        URI target = chosen.map(instance -> instance.uri).orElse(localEndpoint);
+        ClientRequest routed = ClientRequest.from(request)
+                .url(UriComponentsBuilder.fromUri(request.url())
+                        .scheme(target.getScheme())
+                        .host(target.getHost())
+                        .port(target.getPort())
+                        .build(true)
+                        .toUri())
+                .build();
+        if (!chosen.isPresent()) {
+            return exchange.exchange(routed);
+        }
+        Instance instance = chosen.get();
+        return Mono.defer(() -> {
+            instance.outstanding.incrementAndGet();
+            // timed out here, a hung instance fails the request rather than
+            // leaving it to be cancelled by the caller's own timeout
+            return exchange.exchange(routed)
+                    .timeout(responseTimeout)
+                    .doOnNext(response -> record(instance, !response.statusCode().is5xxServerError()))
+                    .doOnError(e -> record(instance, false))
+                    .doFinally(signal -> instance.outstanding.decrementAndGet());
+        });
+    }
+
+    private void record(Instance instance, boolean success) {
+        if (success) {
+            instance.consecutiveFailures.set(0);
+        } else if (instance.consecutiveFailures.incrementAndGet() >= failuresToEject) {
+            instance.consecutiveFailures.set(0);
+            instance.ejectedUntil = clock.millis() + ejectionTime.toMillis();
+            log.warn("Ejected {} instance {} for {}", serviceName, instance.uri, ejectionTime);
+        }
+    }
+
+    /**
+     * A registered instance and the load balancer's view of its health.
+     */
+    public static final class Instance {
+
+        private final URI uri;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long ejectedUntil;
+
+        Instance(URI uri) {
+            this.uri = uri;
+        }
+
+        public URI getUri() {
+            return uri;
+        }
+
+        /**
+         * @return the number of requests sent to this instance and not yet answered
+         */
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        boolean isEjected(long now) {
+            return now < ejectedUntil;
+        }
+    }
+}
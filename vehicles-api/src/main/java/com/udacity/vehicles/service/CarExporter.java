@@ -0,0 +1,82 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads the whole inventory, such as for a nightly export.
+ *
+ * Cars are read through a database cursor in id order and handed out
+ * `vehicles.export.window` at a time: each window is detached from the
+ * persistence context, enriched with prices and addresses, then passed on
+ * before the next one is read, so memory use does not grow with the number
+ * of cars.  The cursor, and its connection, stay open until the last window
+ * has been handed out.
+ */
+@Service
+public class CarExporter {
+
+    private final EntityManager entityManager;
+    private final CarRepository repository;
+    private final CarService carService;
+    private final TransactionTemplate transaction;
+    private final int window;
+
+    public CarExporter(EntityManager entityManager,
+                       CarRepository repository,
+                       CarService carService,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${vehicles.export.window:100}") int window) {
+        this.entityManager = entityManager;
+        this.repository = repository;
+        this.carService = carService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setReadOnly(true);
+        this.window = window;
+    }
+
+    /**
+     * Enriches and hands out every car following the given id.
+     * @param after id of the last car already exported, 0 to start at the beginning
+     * @param sink called with each window of enriched cars, in id order
+     * @return the number of cars exported
+     */
+    public int exportCars(long after, Consumer<List<Car>> sink) {
+        return transaction.execute(status -> {
+            int count = 0;
+            try (Stream<Car> cars = repository.streamByIdGreaterThanOrderByIdAsc(after)) {
+                List<Car> chunk = new ArrayList<>(window);
+                Iterator<Car> iterator = cars.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == window || !iterator.hasNext()) {
+                        count += send(chunk, sink);
+                        chunk = new ArrayList<>(window);
+                    }
+                }
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Detaches the chunk, so neither the persistence context keeps it nor
+     * the enriched addresses are ever written back, then enriches it.
+     */
+    private int send(List<Car> chunk, Consumer<List<Car>> sink) {
+        entityManager.clear();
+        carService.enrich(chunk);
+        sink.accept(chunk);
+        return chunk.size();
+    }
+}
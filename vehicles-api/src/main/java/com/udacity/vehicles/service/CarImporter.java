@@ -0,0 +1,171 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.domain.manufacturer.ManufacturerRepository;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Saves many cars at once, such as a dealer feed.
+ *
+ * Cars are read one at a time and saved `vehicles.import.batch-size` at
+ * a time: the inserts and updates of a chunk are sent to the database as
+ * JDBC batches, then the persistence context is cleared, so memory use does
+ * not grow with the number of cars.  Cars with an id update that car, the
+ * others are created.  Prices and addresses are not looked up.
+ *
+ * Every car is validated before it is saved.  The whole import runs in one
+ * transaction: if any car is invalid, none are saved and the first
+ * `vehicles.import.max-errors` errors are reported.
+ */
+@Service
+public class CarImporter {
+
+    private final EntityManager entityManager;
+    private final CarRepository repository;
+    private final ManufacturerRepository manufacturers;
+    private final Validator validator;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public CarImporter(EntityManager entityManager,
+                       CarRepository repository,
+                       ManufacturerRepository manufacturers,
+                       Validator validator,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${vehicles.import.batch-size:500}") int batchSize,
+                       @Value("${vehicles.import.max-errors:100}") int maxErrors) {
+        this.entityManager = entityManager;
+        this.repository = repository;
+        this.manufacturers = manufacturers;
+        this.validator = validator;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Creates or updates every car, or none of them.
+     * @param cars the cars to save, read one at a time
+     * @param saved called with each saved car, once its chunk is written
+     * @return the number of cars saved
+     * @throws InvalidCarsException if a car is invalid or cannot be read
+     */
+    public int importCars(Iterator<Car> cars, Consumer<Car> saved) throws InvalidCarsException {
+        return transaction.execute(status -> {
+            Set<Integer> codes = manufacturers.findAll().stream()
+                    .map(Manufacturer::getCode)
+                    .collect(Collectors.toSet());
+            List<String> errors = new ArrayList<>();
+            List<Car> chunk = new ArrayList<>(batchSize);
+            int chunkStart = 0;
+            int count = 0;
+
+            for (int index = 0; errors.size() < maxErrors; index++) {
+                Car car;
+                try {
+                    if (!cars.hasNext()) {
+                        break;
+                    }
+                    car = cars.next();
+                } catch (RuntimeException e) {
+                    // the rest of the input cannot be read reliably
+                    errors.add("[" + index + "]: " + e.getMessage());
+                    break;
+                }
+                List<String> carErrors = validate(car, codes);
+                if (!carErrors.isEmpty()) {
+                    int position = index;
+                    carErrors.forEach(error -> errors.add("[" + position + "]." + error));
+                }
+                if (!errors.isEmpty()) {
+                    // keep validating to report more errors, but stop writing
+                    continue;
+                }
+                if (chunk.isEmpty()) {
+                    chunkStart = index;
+                }
+                chunk.add(car);
+                if (chunk.size() == batchSize) {
+                    count += write(chunk, chunkStart, errors, saved);
+                    chunk.clear();
+                }
+            }
+            if (errors.isEmpty() && !chunk.isEmpty()) {
+                count += write(chunk, chunkStart, errors, saved);
+            }
+            if (!errors.isEmpty()) {
+                status.setRollbackOnly();
+                throw new InvalidCarsException(errors);
+            }
+            return count;
+        });
+    }
+
+    private List<String> validate(Car car, Set<Integer> codes) {
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<Car> violation : validator.validate(car)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        Manufacturer manufacturer = car.getDetails() == null ? null : car.getDetails().getManufacturer();
+        if (manufacturer != null && !codes.contains(manufacturer.getCode())) {
+            errors.add("details.manufacturer.code: unknown manufacturer " + manufacturer.getCode());
+        }
+        return errors;
+    }
+
+    /**
+     * Persists new cars and updates existing ones, then flushes the chunk
+     * as JDBC batches and detaches it.
+     * @param first position of the first car of the chunk in the input, for errors
+     */
+    private int write(List<Car> chunk, int first, List<String> errors, Consumer<Car> saved) {
+        List<Long> ids = chunk.stream()
+                .map(Car::getId)
+                .filter(id -> id != null)
+                .collect(Collectors.toList());
+        Map<Long, Car> existing = ids.isEmpty() ? Map.of() : repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+
+        List<Car> written = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Car car = chunk.get(i);
+            car.getDetails().setManufacturer(entityManager.getReference(
+                    Manufacturer.class, car.getDetails().getManufacturer().getCode()));
+            if (car.getId() == null) {
+                entityManager.persist(car);
+                written.add(car);
+                continue;
+            }
+            Car carToBeUpdated = existing.get(car.getId());
+            if (carToBeUpdated == null) {
+                errors.add("[" + (first + i) + "].id: no car with id " + car.getId());
+                continue;
+            }
+            carToBeUpdated.setCondition(car.getCondition());
+            carToBeUpdated.setDetails(car.getDetails());
+            carToBeUpdated.setLocation(car.getLocation());
+            written.add(carToBeUpdated);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        written.forEach(saved);
+        return written.size();
+    }
+}
@@ -0,0 +1,59 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.car.Car;
+import java.util.List;
+
+/**
+ * Holds one page of cars retrieved by seeking on the car id, along
+ * with whether more cars exist on either side of the page.
+ */
+public class CarKeysetPage {
+
+    private final List<Car> content;
+    private final int size;
+    private final boolean previous;
+    private final boolean next;
+
+    public CarKeysetPage(List<Car> content, int size, boolean previous, boolean next) {
+        this.content = content;
+        this.size = size;
+        this.previous = previous;
+        this.next = next;
+    }
+
+    /**
+     * @return the cars on this page in ascending id order
+     */
+    public List<Car> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the requested page size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public boolean hasPrevious() {
+        return previous;
+    }
+
+    public boolean hasNext() {
+        return next;
+    }
+
+    /**
+     * @return the id of the first car on the page, the cursor for the previous page
+     */
+    public Long getFirstId() {
+        return content.isEmpty() ? null : content.get(0).getId();
+    }
+
+    /**
+     * @return the id of the last car on the page, the cursor for the next page
+     */
+    public Long getLastId() {
+        return content.isEmpty() ? null : content.get(content.size() - 1).getId();
+    }
+}
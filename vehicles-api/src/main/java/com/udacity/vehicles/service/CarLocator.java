@@ -0,0 +1,127 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.Geohash;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Finds the cars nearest to a point.
+ *
+ * The circle around the point is covered by at most
+ * `vehicles.near.max-cells` geohash cells, and only the id and coordinates
+ * of the cars in those cells are read, each cell through its own range
+ * scan of the geohash index.  Their exact distances are then computed and only the
+ * nearest cars within the radius are loaded and enriched.
+ */
+@Service
+public class CarLocator {
+
+    private static final String CANDIDATES =
+            "select c.id, c.location.lat, c.location.lon from Car c where c.location.geohash like :cell";
+
+    private final EntityManager entityManager;
+    private final CarRepository repository;
+    private final CarService carService;
+    private final TransactionTemplate transaction;
+    private final int maxCells;
+
+    public CarLocator(EntityManager entityManager,
+                      CarRepository repository,
+                      CarService carService,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${vehicles.near.max-cells:16}") int maxCells) {
+        this.entityManager = entityManager;
+        this.repository = repository;
+        this.carService = carService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setReadOnly(true);
+        this.maxCells = maxCells;
+    }
+
+    /**
+     * Finds the cars within a distance of a point, nearest first.
+     * @param lat the latitude of the point in degrees
+     * @param lon the longitude of the point in degrees
+     * @param radiusKm the greatest distance from the point in kilometers
+     * @param limit the greatest number of cars to return
+     * @return the enriched cars and their distances, nearest first
+     */
+    public List<NearbyCar> near(double lat, double lon, double radiusKm, int limit) {
+        List<Candidate> nearest = nearest(lat, lon, radiusKm, limit);
+        Map<Long, Car> cars = repository.findAllById(nearest.stream().map(c -> c.id).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Car::getId, Function.identity()));
+
+        List<NearbyCar> found = new ArrayList<>(nearest.size());
+        for (Candidate candidate : nearest) {
+            Car car = cars.get(candidate.id);
+            if (car != null) {
+                found.add(new NearbyCar(car, candidate.distanceKm));
+            }
+        }
+        carService.enrich(found.stream().map(NearbyCar::getCar).collect(Collectors.toList()));
+        return found;
+    }
+
+    /**
+     * Reads the coordinates of the cars in the covering cells and keeps
+     * the `limit` nearest within the radius.
+     */
+    private List<Candidate> nearest(double lat, double lon, double radiusKm, int limit) {
+        // the farthest of the nearest cars found so far is at the head
+        PriorityQueue<Candidate> nearest = new PriorityQueue<>(
+                Comparator.comparingDouble((Candidate c) -> c.distanceKm).reversed());
+        transaction.execute(status -> {
+            // one query per cell, as the database scans the geohash index
+            // for a single prefix but not for a disjunction of them
+            for (String cell : Geohash.cover(lat, lon, radiusKm, maxCells)) {
+                try (Stream<Tuple> rows = entityManager.createQuery(CANDIDATES, Tuple.class)
+                        .setParameter("cell", cell + "%")
+                        .getResultStream()) {
+                    rows.forEach(row -> {
+                        double distanceKm = Geohash.distanceKm(lat, lon,
+                                row.get(1, Double.class), row.get(2, Double.class));
+                        if (distanceKm > radiusKm) {
+                            return;
+                        }
+                        if (nearest.size() < limit) {
+                            nearest.add(new Candidate(row.get(0, Long.class), distanceKm));
+                        } else if (distanceKm < nearest.peek().distanceKm) {
+                            nearest.poll();
+                            nearest.add(new Candidate(row.get(0, Long.class), distanceKm));
+                        }
+                    });
+                }
+            }
+            return null;
+        });
+
+        List<Candidate> sorted = new ArrayList<>(nearest);
+        sorted.sort(Comparator.comparingDouble(c -> c.distanceKm));
+        return sorted;
+    }
+
+    private static final class Candidate {
+        final long id;
+        final double distanceKm;
+
+        Candidate(long id, double distanceKm) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+        }
+    }
+}
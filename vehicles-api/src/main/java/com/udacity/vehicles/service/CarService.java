@@ -1,13 +1,35 @@
 package com.udacity.vehicles.service;
 
 import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceCache;
 import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.Location;
 import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarFilter;
 import com.udacity.vehicles.domain.car.CarRepository;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 /**
  * Implements the car service create, read, update or delete
@@ -17,13 +39,27 @@ import org.springframework.stereotype.Service;
 @Service
 public class CarService {
 
+    private static final Logger log = LoggerFactory.getLogger(CarService.class);
+
     private PriceClient pricingClient;
 
     private MapsClient mapsClient;
 
     private final CarRepository repository;
 
-    public CarService(CarRepository repository, PriceClient priceClient, MapsClient mapsClient) {
+    private final int enrichmentConcurrency;
+
+    private final Duration enrichmentTimeout;
+
+    private final Scheduler jdbcScheduler;
+
+    private final Executor enrichmentExecutor;
+
+    public CarService(CarRepository repository, PriceClient priceClient, MapsClient mapsClient,
+                      @Value("${vehicles.enrichment.concurrency:32}") int enrichmentConcurrency,
+                      @Value("${vehicles.enrichment.timeout:5000}") long enrichmentTimeoutMillis,
+                      @Qualifier("jdbcScheduler") Scheduler jdbcScheduler,
+                      @Qualifier("enrichmentExecutor") Optional<Executor> enrichmentExecutor) {
         /**
          * DONE! : Add the Maps and Pricing Web Clients you create
          *   in `VehiclesApiApplication` as arguments and set them here.
@@ -31,6 +67,10 @@ public class CarService {
         this.repository = repository;
         this.pricingClient = priceClient;
         this.mapsClient = mapsClient;
+        this.enrichmentConcurrency = enrichmentConcurrency;
+        this.enrichmentTimeout = Duration.ofMillis(enrichmentTimeoutMillis);
+        this.jdbcScheduler = jdbcScheduler;
+        this.enrichmentExecutor = enrichmentExecutor.orElse(null);
     }
 
     /**
@@ -40,27 +80,157 @@ public class CarService {
     public List<Car> list() {
 
         List<Car> cars = repository.findAll();
+        enrich(cars);
+        return cars;
+    }
+
+    /**
+     * Gathers one page of vehicles; only the cars on the page are enriched.
+     * @param pageable the page number, size and sort order to retrieve
+     * @return the requested page of vehicles in the CarRepository
+     */
+    public Page<Car> list(Pageable pageable) {
+        Page<Car> page = repository.findAll(pageable);
+        enrich(page.getContent());
+        return page;
+    }
 
-        cars.forEach(c -> {
-            c.setLocation(mapsClient.getAddress(c.getLocation()));
-            c.setPrice(pricingClient.getPrice(c.getId()));
-        });
+    /**
+     * Gathers one page of the vehicles matching the filter; only the cars
+     * on the page are enriched.
+     * @param filter the conditions the vehicles must meet
+     * @param pageable the page number, size and sort order to retrieve
+     * @return the requested page of matching vehicles
+     */
+    public Page<Car> search(CarFilter filter, Pageable pageable) {
+        Page<Car> page = repository.findAll(filter.toSpecification(), pageable);
+        enrich(page.getContent());
+        return page;
+    }
 
-        return cars;
+    /**
+     * Gathers one page of vehicles without blocking the caller.
+     * The blocking JPA query runs on the `jdbcScheduler` and the
+     * enrichment calls never hold a thread while they wait.
+     * @param pageable the page number, size and sort order to retrieve
+     * @return a Mono emitting the requested page of vehicles
+     */
+    public Mono<Page<Car>> listAsync(Pageable pageable) {
+        return Mono.fromCallable(() -> repository.findAll(pageable))
+                .subscribeOn(jdbcScheduler)
+                .flatMap(page -> enrichAsync(page.getContent()).thenReturn(page));
+    }
+
+    /**
+     * Gathers the page of vehicles following the car with the given id.
+     * Seeking on the id keeps deep pages as cheap as the first one.
+     * @param after id of the last car on the previous page, 0 for the first page
+     * @param size maximum number of vehicles to return
+     * @return the page of vehicles with ids greater than `after`
+     */
+    public CarKeysetPage listAfter(Long after, int size) {
+        List<Car> cars = repository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, size));
+        return toKeysetPage(cars, size);
+    }
+
+    /**
+     * Gathers the page of vehicles preceding the car with the given id.
+     * @param before id of the first car on the following page
+     * @param size maximum number of vehicles to return
+     * @return the page of vehicles with ids less than `before`, in ascending id order
+     */
+    public CarKeysetPage listBefore(Long before, int size) {
+        List<Car> cars = new ArrayList<>(repository.findByIdLessThanOrderByIdDesc(before, PageRequest.of(0, size)));
+        Collections.reverse(cars);
+        return toKeysetPage(cars, size);
+    }
+
+    private CarKeysetPage toKeysetPage(List<Car> cars, int size) {
+        enrich(cars);
+        if (cars.isEmpty()) {
+            return new CarKeysetPage(cars, size, false, false);
+        }
+        return new CarKeysetPage(cars, size,
+                repository.existsByIdLessThan(cars.get(0).getId()),
+                repository.existsByIdGreaterThan(cars.get(cars.size() - 1).getId()));
+    }
+
+    /**
+     * Enriches the cars, blocking until done.
+     * @param cars the vehicles to enrich in place
+     */
+    public void enrich(List<Car> cars) {
+        enrichAsync(cars).block();
+    }
+
+    /**
+     * Looks up the prices of all cars with one batched request while the
+     * addresses are looked up concurrently, one request per car.
+     * At most `vehicles.enrichment.concurrency` address lookups are in flight
+     * at once and the whole batch is abandoned once `vehicles.enrichment.timeout`
+     * milliseconds have passed; cars that did not finish by then keep their
+     * stored location and show the "(consult price)" note.
+     * @param cars the vehicles to enrich in place
+     * @return a Mono completing once every car is enriched or the deadline passed
+     */
+    private Mono<Void> enrichAsync(List<Car> cars) {
+        List<Long> ids = cars.stream().map(Car::getId).collect(Collectors.toList());
+
+        Mono<Void> prices = pricingClient.getPricesAsync(ids)
+                .doOnNext(found -> cars.forEach(c -> c.setPrice(found.get(c.getId()))))
+                .then();
+
+        Mono<Void> addresses = Flux.fromIterable(cars)
+                .flatMap(c -> mapsClient.getAddressAsync(c.getLocation()).doOnNext(c::setLocation),
+                        enrichmentConcurrency)
+                .then();
+
+        return Mono.when(prices, addresses)
+                .timeout(enrichmentTimeout)
+                .doOnError(e -> log.warn("Enrichment of {} cars did not finish within {}", cars.size(), enrichmentTimeout))
+                .onErrorResume(e -> Mono.empty())
+                .doOnSuccess(done -> cars.stream()
+                        .filter(c -> c.getPrice() == null)
+                        .forEach(c -> c.setPrice(PriceClient.PRICE_UNAVAILABLE)));
     }
 
     /**
      * Gets car information by ID (or throws exception if non-existent)
+     *
+     * With the `virtual-threads` profile the price and address are looked
+     * up at the same time, each on its own virtual thread; otherwise one
+     * after the other.
      * @param id the ID number of the car to gather information on
      * @return the requested car's information, including location and price
      */
     public Car findById(Long id) throws CarNotFoundException {
+        return enrich(findStoredById(id));
+    }
+
+    /**
+     * Gets the stored car information by ID, without its price and address.
+     * @param id the ID number of the car to gather information on
+     * @return the requested car as stored
+     * @throws CarNotFoundException if no car has the ID
+     */
+    public Car findStoredById(Long id) throws CarNotFoundException {
         /**
          * DONE! : Find the car by ID from the `repository` if it exists.
          *   If it does not exist, throw a CarNotFoundException
          *   Remove the below code as part of your implementation.
          */
-        Car car = repository.findById(id).orElseThrow(CarNotFoundException::new);
+        return repository.findById(id).orElseThrow(CarNotFoundException::new);
+    }
+
+    /**
+     * Looks up the price and address of a stored car.
+     * @param car the vehicle to enrich in place
+     * @return the car, including location and price
+     */
+    public Car enrich(Car car) {
+        if (enrichmentExecutor != null) {
+            return enrichInScope(car);
+        }
 
         /**
          * DONE! : Use the Pricing Web client you create in `VehiclesApiApplication`
@@ -84,6 +254,77 @@ public class CarService {
         return car;
     }
 
+    /**
+     * Identifies the version of a stored car's full information from its
+     * record and its cached price, without any remote call.  The address
+     * follows from the stored location.
+     * @param car the vehicle as stored
+     * @return the version, or empty if the price is not cached
+     */
+    public Optional<CarVersion> findCachedVersion(Car car) {
+        PriceCache.Entry price = pricingClient.getCachedPrice(car.getId());
+        return price == null ? Optional.empty() : Optional.of(new CarVersion(car, price));
+    }
+
+    /**
+     * Identifies the version of an enriched car's information.
+     * @param car the vehicle with its price and address
+     * @return the version, or empty if the price or address could not be
+     *   looked up, or the price changed in the meantime
+     */
+    public Optional<CarVersion> versionOf(Car car) {
+        if (car.getLocation() == null || car.getLocation().getAddress() == null) {
+            return Optional.empty();
+        }
+        return findCachedVersion(car).filter(version -> version.getPrice().equals(car.getPrice()));
+    }
+
+    /**
+     * Forks the price and address lookups onto the `enrichmentExecutor` and
+     * waits for both, at most `vehicles.enrichment.timeout` milliseconds.
+     * Neither lookup outlives the call: if one fails or the deadline
+     * passes, the other is cancelled and the car keeps its stored location
+     * and the "(consult price)" note.
+     * @param car the vehicle to enrich in place
+     * @return the car
+     */
+    private Car enrichInScope(Car car) {
+        try (TaskScope scope = new TaskScope(enrichmentExecutor)) {
+            Future<String> price = scope.fork(() -> pricingClient.getPrice(car.getId()));
+            Future<Location> location = scope.fork(() -> mapsClient.getAddress(car.getLocation()));
+            scope.join(enrichmentTimeout);
+            car.setPrice(price.get());
+            car.setLocation(location.get());
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Enrichment of car {} failed or did not finish within {}", car.getId(), enrichmentTimeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (car.getPrice() == null) {
+            car.setPrice(PriceClient.PRICE_UNAVAILABLE);
+        }
+        return car;
+    }
+
+    /**
+     * Gets car information by ID without blocking the caller.
+     * The price and address are requested at the same time.
+     * @param id the ID number of the car to gather information on
+     * @return a Mono emitting the requested car's information, including
+     *   location and price, or a CarNotFoundException error
+     */
+    public Mono<Car> findByIdAsync(Long id) {
+        return Mono.fromCallable(() -> repository.findById(id).orElseThrow(CarNotFoundException::new))
+                .subscribeOn(jdbcScheduler)
+                .flatMap(car -> Mono.zip(pricingClient.getPriceAsync(car.getId()),
+                                         mapsClient.getAddressAsync(car.getLocation()))
+                        .map(result -> {
+                            car.setPrice(result.getT1());
+                            car.setLocation(result.getT2());
+                            return car;
+                        }));
+    }
+
     /**
      * Either creates or updates a vehicle, based on prior existence of car
      * @param car A car object, which can be either new or existing
@@ -0,0 +1,51 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.client.prices.PriceCache;
+import com.udacity.vehicles.domain.car.Car;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Identifies one version of a car's full information: its stored record
+ * and its price.  The tag changes whenever either does, and the last
+ * modification is the later of the record's and the price's.
+ */
+public class CarVersion {
+
+    private final String tag;
+    private final String price;
+    private final Instant lastModified;
+
+    public CarVersion(Car car, PriceCache.Entry price) {
+        this.tag = DigestUtils.md5DigestAsHex(
+                (car.getId() + "|" + car.getModifiedAt() + "|" + price.getPrice()).getBytes(StandardCharsets.UTF_8));
+        this.price = price.getPrice();
+        Instant modifiedAt = car.getModifiedAt() == null ? null
+                : car.getModifiedAt().atZone(ZoneId.systemDefault()).toInstant();
+        this.lastModified = modifiedAt == null || modifiedAt.isBefore(price.getStoredAt())
+                ? price.getStoredAt() : modifiedAt;
+    }
+
+    /**
+     * @return a digest of the car record and price
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @return the price this version was taken with
+     */
+    public String getPrice() {
+        return price;
+    }
+
+    /**
+     * @return when the car record or its price last changed
+     */
+    public Instant getLastModified() {
+        return lastModified;
+    }
+}
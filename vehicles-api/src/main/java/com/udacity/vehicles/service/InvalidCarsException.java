@@ -0,0 +1,23 @@
+package com.udacity.vehicles.service;
+
+import java.util.List;
+
+/**
+ * Thrown when cars sent together cannot be saved; none of them were saved.
+ */
+public class InvalidCarsException extends RuntimeException {
+
+    private final List<String> errors;
+
+    public InvalidCarsException(List<String> errors) {
+        super(errors.size() + " invalid cars");
+        this.errors = errors;
+    }
+
+    /**
+     * @return one message per error, prefixed with the position of the car
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
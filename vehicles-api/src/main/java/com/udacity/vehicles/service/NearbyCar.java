@@ -0,0 +1,28 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.car.Car;
+
+/**
+ * Holds a car found near a point, along with its distance from the point.
+ */
+public class NearbyCar {
+
+    private final Car car;
+    private final double distanceKm;
+
+    public NearbyCar(Car car, double distanceKm) {
+        this.car = car;
+        this.distanceKm = distanceKm;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    /**
+     * @return the great circle distance from the point in kilometers
+     */
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
@@ -0,0 +1,83 @@
+package com.udacity.vehicles.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a few subtasks that belong to one piece of work and never lets
+ * them outlive it, in the manner of `StructuredTaskScope.ShutdownOnFailure`.
+ *
+ * Subtasks are forked onto an executor (a virtual thread per task is the
+ * intended one) and {@link #join(Duration)} waits for all of them.  The first
+ * failure or the deadline cancels the subtasks still running, as does
+ * closing the scope, so the caller always leaves with nothing in flight.
+ * <pre>
+ * try (TaskScope scope = new TaskScope(executor)) {
+ *     Future&lt;String&gt; price = scope.fork(() -&gt; ...);
+ *     Future&lt;Location&gt; location = scope.fork(() -&gt; ...);
+ *     scope.join(timeout);
+ *     ...
+ * }
+ * </pre>
+ */
+class TaskScope implements AutoCloseable {
+
+    private final CompletionService<Object> completion;
+    private final List<Future<?>> forks = new ArrayList<>();
+
+    TaskScope(Executor executor) {
+        this.completion = new ExecutorCompletionService<>(executor);
+    }
+
+    /**
+     * Starts a subtask.
+     * @param task the subtask to run
+     * @param <T> the subtask result type
+     * @return the subtask result, available once {@link #join(Duration)} returns
+     */
+    @SuppressWarnings("unchecked")
+    <T> Future<T> fork(Callable<? extends T> task) {
+        Future<T> future = (Future<T>) completion.submit((Callable<Object>) task);
+        forks.add(future);
+        return future;
+    }
+
+    /**
+     * Waits for every subtask to finish, cancelling the others as soon as one fails.
+     * @param timeout the longest time to wait for all of them
+     * @throws ExecutionException if a subtask failed, carrying its exception
+     * @throws TimeoutException if the subtasks did not finish in time
+     * @throws InterruptedException if the calling thread was interrupted
+     */
+    void join(Duration timeout) throws ExecutionException, TimeoutException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (int i = 0; i < forks.size(); i++) {
+                Future<Object> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new TimeoutException("Subtasks did not finish within " + timeout);
+                }
+                done.get();
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Cancels any subtask still running.
+     */
+    @Override
+    public void close() {
+        forks.forEach(future -> future.cancel(true));
+    }
+}
@@ -1,39 +1,71 @@
 package com.udacity.vehicles.api;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceCache;
 import com.udacity.vehicles.client.prices.PriceClient;
 import com.udacity.vehicles.domain.Condition;
 import com.udacity.vehicles.domain.Location;
 import com.udacity.vehicles.domain.car.Car;
 import com.udacity.vehicles.domain.car.Details;
 import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.service.CarExporter;
+import com.udacity.vehicles.service.CarImporter;
+import com.udacity.vehicles.service.CarKeysetPage;
+import com.udacity.vehicles.service.CarLocator;
 import com.udacity.vehicles.service.CarService;
+import com.udacity.vehicles.service.CarVersion;
+import com.udacity.vehicles.service.InvalidCarsException;
+import com.udacity.vehicles.service.NearbyCar;
 import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
-import org.junit.Before;
-import org.junit.Test;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
-import org.junit.runner.RunWith;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
-import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 /**
  * Implements testing of the CarController class.
  */
-@RunWith(SpringRunner.class)
 @SpringBootTest
 @AutoConfigureMockMvc
 @AutoConfigureJsonTesters
@@ -48,6 +80,15 @@ public class CarControllerTest {
     @MockBean
     private CarService carService;
 
+    @MockBean
+    private CarImporter carImporter;
+
+    @MockBean
+    private CarExporter carExporter;
+
+    @MockBean
+    private CarLocator carLocator;
+
     @MockBean
     private PriceClient priceClient;
 
@@ -57,13 +98,34 @@ public class CarControllerTest {
     /**
      * Creates pre-requisites for testing, such as an example car.
      */
-    @Before
+    @BeforeEach
     public void setup() {
         Car car = getCar();
         car.setId(1L);
         given(carService.save(any())).willReturn(car);
         given(carService.findById(any())).willReturn(car);
+        given(carService.findStoredById(any())).willReturn(car);
         given(carService.list()).willReturn(Collections.singletonList(car));
+        given(carService.list(any(Pageable.class))).willAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(0);
+            return new PageImpl<>(Collections.singletonList(car), pageable, 41);
+        });
+        given(carExporter.exportCars(anyLong(), any())).willAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            Consumer<List<Car>> sink = invocation.getArgument(1);
+            Car next = getCar();
+            next.setId(after + 1);
+            sink.accept(Collections.singletonList(next));
+            return 1;
+        });
+        given(carService.search(any(), any(Pageable.class))).willAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(1);
+            return new PageImpl<>(Collections.singletonList(car), pageable, 41);
+        });
+        given(carLocator.near(anyDouble(), anyDouble(), anyDouble(), anyInt()))
+                .willReturn(Collections.singletonList(new NearbyCar(car, 1.5)));
+        given(carService.listAfter(eq(0L), anyInt()))
+                .willReturn(new CarKeysetPage(Collections.singletonList(car), 1, false, true));
     }
 
     /**
@@ -84,6 +146,92 @@ public class CarControllerTest {
                 .andExpect(jsonPath("_links.self.href").value("http://localhost/cars/1"));
     }
 
+    /**
+     * Tests that cars sent one per line are all saved and their ids returned.
+     * @throws Exception when the cars cannot be saved
+     */
+    @Test
+    @DisplayName("Create many cars (via POST of NDJSON)")
+    public void createCars() throws Exception {
+        given(carImporter.importCars(any(), any())).willAnswer(invocation -> {
+            Iterator<Car> cars = invocation.getArgument(0);
+            Consumer<Car> saved = invocation.getArgument(1);
+            int count = 0;
+            while (cars.hasNext()) {
+                Car car = cars.next();
+                car.setId((long) ++count);
+                saved.accept(car);
+            }
+            return count;
+        });
+        String line = json.write(getCar()).getJson();
+        mvc.perform(
+                post(new URI("/cars/batch"))
+                        .content(line + "\n" + line + "\n" + line + "\n")
+                        .contentType("application/x-ndjson")
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("count").value(3))
+                .andExpect(jsonPath("ids[2]").value(3));
+    }
+
+    /**
+     * Tests that saved cars returned with their price and address are
+     * enriched a window at a time as they are saved rather than all at once
+     * at the end.
+     * @throws Exception when the cars cannot be saved
+     */
+    @Test
+    @DisplayName("Enrich many created cars a window at a time (via POST)")
+    public void createCarsEnriched() throws Exception {
+        AtomicInteger savedCount = new AtomicInteger();
+        List<Integer> savedAtEnrich = new ArrayList<>();
+        given(carImporter.importCars(any(), any())).willAnswer(invocation -> {
+            Iterator<Car> cars = invocation.getArgument(0);
+            Consumer<Car> saved = invocation.getArgument(1);
+            while (cars.hasNext()) {
+                Car car = cars.next();
+                car.setId((long) savedCount.incrementAndGet());
+                saved.accept(car);
+            }
+            return savedCount.get();
+        });
+        doAnswer(invocation -> savedAtEnrich.add(savedCount.get())).when(carService).enrich(anyList());
+        String line = json.write(getCar()).getJson() + "\n";
+        mvc.perform(
+                post(new URI("/cars/batch?enrich=true"))
+                        .content(line.repeat(250))
+                        .contentType("application/x-ndjson")
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.cars.length()").value(250));
+
+        ArgumentCaptor<List<Car>> windows = ArgumentCaptor.forClass(List.class);
+        verify(carService, times(3)).enrich(windows.capture());
+        assertEquals(List.of(100, 100, 50),
+                windows.getAllValues().stream().map(List::size).collect(Collectors.toList()));
+        assertEquals(List.of(100, 200, 250), savedAtEnrich);
+    }
+
+    /**
+     * Tests that a batch holding an invalid car is rejected with its errors.
+     * @throws Exception when the request fails
+     */
+    @Test
+    @DisplayName("Reject many cars when one is invalid (via POST)")
+    public void createCarsInvalid() throws Exception {
+        given(carImporter.importCars(any(), any())).willThrow(
+                new InvalidCarsException(Collections.singletonList("[1].details.model: must not be blank")));
+        String car = json.write(getCar()).getJson();
+        mvc.perform(
+                post(new URI("/cars/batch"))
+                        .content("[" + car + "," + car + "]")
+                        .contentType(MediaType.APPLICATION_JSON_UTF8)
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("[1].details.model: must not be blank"));
+    }
+
     /**
      * Tests if the read operation appropriately returns a list of vehicles.
      * @throws Exception if the read operation of the vehicle list fails
@@ -100,7 +248,143 @@ public class CarControllerTest {
                 get(new URI("/cars"))
                         .contentType(MediaType.APPLICATION_JSON_UTF8)
                         .accept(MediaType.APPLICATION_JSON_UTF8))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.cars[0]._links.self.href").value("http://localhost/cars/1"))
+                .andExpect(jsonPath("page.number").value(0))
+                .andExpect(jsonPath("page.size").value(20));
+    }
+
+    /**
+     * Tests that a page in the middle of the inventory links to its neighbours.
+     * @throws Exception if the read operation of the vehicle page fails
+     */
+    @Test
+    @DisplayName("Page through the inventory (via GET)")
+    public void listCarsPage() throws Exception {
+        mvc.perform(
+                get(new URI("/cars?page=1&size=20&sort=details.modelYear,desc"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("page.totalElements").value(41))
+                .andExpect(jsonPath("page.totalPages").value(3))
+                .andExpect(jsonPath("_links.prev.href")
+                        .value("http://localhost/cars?page=0&size=20&sort=details.modelYear,desc"))
+                .andExpect(jsonPath("_links.next.href")
+                        .value("http://localhost/cars?page=2&size=20&sort=details.modelYear,desc"));
+    }
+
+    /**
+     * Tests that seeking from a car id links to the next page by cursor.
+     * @throws Exception if the read operation of the vehicle page fails
+     */
+    @Test
+    @DisplayName("Seek through the inventory by id (via GET)")
+    public void listCarsAfter() throws Exception {
+        mvc.perform(
+                get(new URI("/cars?after=0&size=1"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_links.prev").doesNotExist())
+                .andExpect(jsonPath("_links.next.href").value("http://localhost/cars?after=1&size=1"));
+    }
+
+    /**
+     * Tests that search results link to their neighbouring pages with the same filters.
+     * @throws Exception if the search fails
+     */
+    @Test
+    @DisplayName("Search the inventory (via GET)")
+    public void searchCars() throws Exception {
+        mvc.perform(
+                get(new URI("/cars/search?model=Model%20S&minModelYear=2018&page=1&size=20"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.cars[0]._links.self.href").value("http://localhost/cars/1"))
+                .andExpect(jsonPath("page.totalElements").value(41))
+                .andExpect(jsonPath("_links.next.href")
+                        .value("http://localhost/cars/search?model=Model%20S&minModelYear=2018&page=2&size=20&sort=id,asc"));
+    }
+
+    /**
+     * Tests that a search with half a bounding box is rejected.
+     * @throws Exception if the search fails
+     */
+    @Test
+    @DisplayName("Reject an incomplete bounding box (via GET)")
+    public void searchCarsInvalid() throws Exception {
+        mvc.perform(
+                get(new URI("/cars/search?south=40&north=41&west=-74"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]")
+                        .value("boundingBox: needs all of south, west, north and east, with south not above north"));
+    }
+
+    /**
+     * Tests that the cars near a point are listed with their distance.
+     * @throws Exception if the lookup fails
+     */
+    @Test
+    @DisplayName("Find the cars near a point (via GET)")
+    public void findCarsNear() throws Exception {
+        mvc.perform(
+                get(new URI("/cars/near?lat=40.73&lon=-73.93&radiusKm=5"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_embedded.cars[0].distanceKm").value(1.5))
+                .andExpect(jsonPath("_embedded.cars[0]._links.self.href").value("http://localhost/cars/1"))
+                .andExpect(jsonPath("_links.self.href").value("http://localhost/cars/near?lat=40.73&lon=-73.93&radiusKm=5"));
+    }
+
+    /**
+     * Tests that a lookup without a radius is rejected.
+     * @throws Exception if the lookup fails
+     */
+    @Test
+    @DisplayName("Reject a lookup without a radius (via GET)")
+    public void findCarsNearInvalid() throws Exception {
+        mvc.perform(
+                get(new URI("/cars/near?lat=40.73&lon=-73.93"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("errors[0]").value("radiusKm: must not be null"));
+    }
+
+    /**
+     * Tests that the inventory is streamed one car per line.
+     * @throws Exception if the export fails
+     */
+    @Test
+    @DisplayName("Export the inventory as NDJSON (via GET)")
+    public void exportCars() throws Exception {
+        MvcResult result = mvc.perform(
+                get(new URI("/cars/export"))
+                        .accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(600000, result.getRequest().getAsyncContext().getTimeout());
+        Car car = getCar();
+        car.setId(1L);
+        mvc.perform(asyncDispatch(result))
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(json.write(car).getJson() + "\n"));
+    }
+
+    /**
+     * Tests that a reconnecting event stream client resumes after its last car.
+     * @throws Exception if the export fails
+     */
+    @Test
+    @DisplayName("Resume an export as Server-Sent Events (via GET)")
+    public void exportCarEvents() throws Exception {
+        MvcResult result = mvc.perform(
+                get(new URI("/cars/export"))
+                        .header("Last-Event-ID", "41")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(content().string(startsWith("event: car\nid: 42\ndata: {")));
     }
 
     /**
@@ -124,6 +408,99 @@ public class CarControllerTest {
                 .andExpect(jsonPath("_links.self.href").value("http://localhost/cars/1"));;
     }
 
+    /**
+     * Tests that links point at the host each request came to.
+     * @throws Exception if the read operation of the vehicle fails
+     */
+    @Test
+    @DisplayName("Link to the host of each request (via GET)")
+    public void findCarLinksPerHost() throws Exception {
+        mvc.perform(
+                get(new URI("http://vehicles.example.com:8443/cars/1"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_links.self.href").value("http://vehicles.example.com:8443/cars/1"))
+                .andExpect(jsonPath("_links.cars.href").value("http://vehicles.example.com:8443/cars"));
+        mvc.perform(
+                get(new URI("/cars/1"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("_links.self.href").value("http://localhost/cars/1"))
+                .andExpect(jsonPath("_links.cars.href").value("http://localhost/cars"));
+    }
+
+    /**
+     * Tests that a car comes with its validators and caching policy.
+     * @throws Exception if the read operation of the vehicle fails
+     */
+    @Test
+    @DisplayName("Tag a car with its version (via GET)")
+    public void findCarTagged() throws Exception {
+        CarVersion version = version();
+        given(carService.versionOf(any())).willReturn(Optional.of(version));
+
+        mvc.perform(
+                get(new URI("/cars/1"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"" + version.getTag() + "\""))
+                .andExpect(header().dateValue("Last-Modified", version.getLastModified().toEpochMilli()))
+                .andExpect(header().string("Cache-Control", "max-age=10, must-revalidate"));
+    }
+
+    /**
+     * Tests that an unchanged car is not looked up again.
+     * @throws Exception if the read operation of the vehicle fails
+     */
+    @Test
+    @DisplayName("Answer 304 for an unchanged car without enriching it (via GET)")
+    public void findCarNotModified() throws Exception {
+        CarVersion version = version();
+        given(carService.findCachedVersion(any())).willReturn(Optional.of(version));
+
+        mvc.perform(
+                get(new URI("/cars/1"))
+                        .header("If-None-Match", "W/\"" + version.getTag() + "\"")
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"" + version.getTag() + "\""))
+                .andExpect(header().string("Cache-Control", "max-age=10, must-revalidate"))
+                .andExpect(content().string(""));
+        mvc.perform(
+                get(new URI("/cars/1"))
+                        .header("If-Modified-Since", version.getLastModified().toEpochMilli() + 1000)
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotModified());
+        verify(carService, never()).enrich(any(Car.class));
+
+        mvc.perform(
+                get(new URI("/cars/1"))
+                        .header("If-None-Match", "W/\"outdated\"")
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * Tests that a listing is tagged with a digest of its content.
+     * @throws Exception if the list operation fails
+     */
+    @Test
+    @DisplayName("Answer 304 for an unchanged listing (via GET)")
+    public void listCarsNotModified() throws Exception {
+        String eTag = mvc.perform(
+                get(new URI("/cars"))
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(
+                get(new URI("/cars"))
+                        .header("If-None-Match", eTag)
+                        .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @DisplayName("Update a car (via PUT)")
     public void updateCar() throws Exception {
@@ -180,4 +557,10 @@ public class CarControllerTest {
         car.setCondition(Condition.USED);
         return car;
     }
-}
\ No newline at end of file
+
+    private CarVersion version() {
+        Car car = getCar();
+        car.setId(1L);
+        return new CarVersion(car, new PriceCache.Entry("USD 100.00", Instant.parse("2026-01-02T03:04:05Z")));
+    }
+}
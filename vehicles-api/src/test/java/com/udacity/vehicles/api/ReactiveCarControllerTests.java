@@ -0,0 +1,190 @@
+package com.udacity.vehicles.api;
+
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.service.CarService;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Serves cars from the blocking and the non-blocking endpoints while the
+ * pricing and maps services are stood in for by a local server that answers
+ * every request after {@link #LATENCY}.
+ *
+ * The load test is skipped unless run with `-Dloadtest=true`; it fires
+ * {@link #REQUESTS} concurrent requests at each endpoint and checks that
+ * every one of them is answered.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "vehicles.reactive.enabled=true",
+        "pricing.endpoint.use.eureka=false",
+        "eureka.client.enabled=false",
+        "prices.cache.maximum-size=0",
+        "maps.cache.maximum-size=0",
+        "vehicles.client.pricing.max-concurrent-calls=5000",
+        "vehicles.client.maps.max-concurrent-calls=5000"
+})
+@ContextConfiguration(initializers = ReactiveCarControllerTests.StubServices.class)
+public class ReactiveCarControllerTests {
+
+    private static final Duration LATENCY = Duration.ofMillis(100);
+    private static final int REQUESTS = 5000;
+
+    // runs on its own event loops, the global ones are replaced when the application starts
+    private static final DisposableServer stub = HttpServer.create()
+            .tcpConfiguration(tcp -> tcp.runOn(LoopResources.create("stub")))
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes
+                    .get("/maps/", (request, response) -> response
+                            .header("Content-Type", "application/json")
+                            .sendString(Mono.just("{\"address\":\"777 Brockton Avenue\",\"city\":\"Abington\"," +
+                                    "\"state\":\"MA\",\"zip\":\"2351\"}").delayElement(LATENCY)))
+                    .get("/prices/search/findByVehicleId", (request, response) -> response
+                            .header("Content-Type", "application/json")
+                            .sendString(Mono.just("{\"currency\":\"USD\",\"price\":19999.99,\"vehicle_id\":1}")
+                                    .delayElement(LATENCY)))
+                    .get("/prices/search/findByVehicleIdIn", (request, response) -> response
+                            .header("Content-Type", "application/json")
+                            .sendString(Mono.just(prices(request.uri())).delayElement(LATENCY))))
+            .bindNow();
+
+    private static String prices(String uri) {
+        String prices = new QueryStringDecoder(uri).parameters().get("vehicle_ids").stream()
+                .map(id -> "{\"currency\":\"USD\",\"price\":19999.99,\"vehicle_id\":" + id + "}")
+                .collect(Collectors.joining(","));
+        return "{\"_embedded\":{\"prices\":[" + prices + "]}}";
+    }
+
+    /**
+     * Points the pricing and maps clients at the stub server.
+     */
+    static class StubServices implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            String endpoint = "http://127.0.0.1:" + stub.port();
+            TestPropertyValues.of("maps.endpoint=" + endpoint, "pricing.endpoint.local=" + endpoint)
+                    .applyTo(context);
+        }
+    }
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    CarService carService;
+
+    private Car car;
+
+    @AfterAll
+    public static void afterAll() {
+        stub.disposeNow();
+    }
+
+    @BeforeEach
+    public void beforeEach() {
+        Details details = new Details();
+        details.setBody("sedan");
+        details.setModel("Impala");
+        details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+        details.setNumberOfDoors(4);
+        details.setFuelType("Gasoline");
+        details.setEngine("3.6L V6");
+        details.setMileage(32280);
+        details.setModelYear(2018);
+        details.setProductionYear(2018);
+        details.setExternalColor("white");
+
+        car = new Car();
+        car.setCondition(Condition.USED);
+        car.setLocation(new Location(40.730610, -73.935242));
+        car.setDetails(details);
+        car = carService.save(car);
+    }
+
+    @Test
+    @DisplayName("Find a car without blocking")
+    public void testGetCar() throws Exception {
+        String body = client(1).get()
+                .uri("http://localhost:" + port + "/reactive/cars/" + car.getId())
+                .responseSingle((response, content) -> content.asString())
+                .block();
+
+        JSONObject obj = new JSONObject(body);
+        assertEquals("USD 19999.99", obj.get("price"));
+        assertEquals("Abington", obj.getJSONObject("location").get("city"));
+        assertTrue(obj.getJSONObject("_links").getJSONObject("self").getString("href")
+                .endsWith("/cars/" + car.getId()));
+    }
+
+    @Test
+    @DisplayName("List cars without blocking")
+    public void testListCars() throws Exception {
+        String body = client(1).get()
+                .uri("http://localhost:" + port + "/reactive/cars?size=1")
+                .responseSingle((response, content) -> content.asString())
+                .block();
+
+        JSONObject obj = new JSONObject(body);
+        assertEquals(1, obj.getJSONObject("page").getInt("size"));
+        assertEquals("USD 19999.99", obj.getJSONObject("_embedded").getJSONArray("cars")
+                .getJSONObject(0).get("price"));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest", matches = "true")
+    @DisplayName("Answer many concurrent requests on both endpoints")
+    public void testConcurrentRequests() {
+        assertAllAnswered("/cars/" + car.getId());
+        assertAllAnswered("/reactive/cars/" + car.getId());
+    }
+
+    private void assertAllAnswered(String path) {
+        HttpClient client = client(REQUESTS);
+        String uri = "http://localhost:" + port + path;
+        AtomicInteger ok = new AtomicInteger();
+
+        Flux.range(0, REQUESTS)
+                .flatMap(i -> client.get().uri(uri)
+                        .responseSingle((response, content) -> content.asString()
+                                .doOnNext(body -> {
+                                    if (response.status().code() == 200) {
+                                        ok.incrementAndGet();
+                                    }
+                                })), REQUESTS)
+                .blockLast(Duration.ofMinutes(5));
+
+        assertEquals(REQUESTS, ok.get(), "not every request succeeded on " + path);
+    }
+
+    private static HttpClient client(int maxConnections) {
+        return HttpClient.create(ConnectionProvider.fixed("load", maxConnections));
+    }
+}
@@ -0,0 +1,101 @@
+package com.udacity.vehicles.client;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DownstreamPolicyTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DownstreamPolicy policy;
+
+    @BeforeEach
+    public void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        BulkheadRegistry bulkheads = BulkheadRegistry.ofDefaults();
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+
+        policy = DownstreamPolicy.of("pricing", Duration.ofMillis(200), 1,
+                50, 4, Duration.ofSeconds(30), bulkheads, circuitBreakers);
+    }
+
+    @Test
+    @DisplayName("Fail a call that does not answer in time")
+    public void testTimeout() {
+        Exception e = assertThrows(Exception.class, () -> policy.apply(Mono.never()).block());
+        assertTrue(e.getCause() instanceof TimeoutException, e.toString());
+    }
+
+    @Test
+    @DisplayName("Open the circuit after repeated failures")
+    public void testOpenCircuit() {
+        for (int i = 0; i < 4; i++) {
+            call(Mono.error(new IllegalStateException("service down")));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, policy.getCircuitBreaker().getState());
+
+        AtomicInteger made = new AtomicInteger();
+        Throwable e = call(Mono.fromCallable(made::incrementAndGet));
+        assertTrue(e instanceof CallNotPermittedException, String.valueOf(e));
+        assertTrue(DownstreamPolicy.isRejection(e));
+        assertEquals(0, made.get(), "the call reached the service through an open circuit");
+    }
+
+    @Test
+    @DisplayName("Keep the circuit closed when the service answers 404")
+    public void testIgnoreClientErrors() {
+        for (int i = 0; i < 4; i++) {
+            call(Mono.error(WebClientResponseException.create(
+                    HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null)));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, policy.getCircuitBreaker().getState());
+    }
+
+    @Test
+    @DisplayName("Reject calls beyond the bulkhead")
+    public void testBulkhead() {
+        Disposable inFlight = policy.apply(Mono.delay(Duration.ofSeconds(10))).subscribe();
+        try {
+            Throwable e = call(Mono.just("USD 100.00"));
+            assertTrue(e instanceof BulkheadFullException, String.valueOf(e));
+        } finally {
+            inFlight.dispose();
+        }
+        assertNull(call(Mono.just("USD 100.00")), "the permit was not released");
+    }
+
+    @Test
+    @DisplayName("Publish the circuit and bulkhead state as metrics")
+    public void testMetrics() {
+        assertNotNull(meterRegistry.find("resilience4j.circuitbreaker.state").tag("name", "pricing").gauge());
+        assertNotNull(meterRegistry.find("resilience4j.bulkhead.available.concurrent.calls").tag("name", "pricing").gauge());
+    }
+
+    private Throwable call(Mono<?> call) {
+        try {
+            policy.apply(call).block();
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.udacity.vehicles.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTests {
+
+    private SimpleMeterRegistry registry;
+    private SingleFlight<Long, String> prices;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    public void beforeEach() {
+        registry = new SimpleMeterRegistry();
+        prices = new SingleFlight<>("prices", registry);
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Share one call between concurrent identical lookups")
+    public void testCoalesce() {
+        List<String> results = Flux.range(0, 100)
+                .flatMap(i -> prices.execute(1L, this::slowPrice))
+                .collectList()
+                .block();
+
+        assertEquals(100, results.size());
+        results.forEach(price -> assertEquals("USD 100.00", price));
+        assertEquals(1, calls.get());
+        assertEquals(0, prices.inFlight());
+        assertEquals(0.99, registry.get("singleflight.coalescing.ratio").tag("name", "prices").gauge().value(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Keep lookups of different keys apart")
+    public void testDifferentKeys() {
+        Flux.range(0, 10)
+                .flatMap(i -> prices.execute((long) i % 2, this::slowPrice))
+                .blockLast();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Call again once the call in flight completed")
+    public void testCallAgainAfterCompletion() {
+        prices.execute(1L, this::slowPrice).block();
+        prices.execute(1L, this::slowPrice).block();
+
+        assertEquals(2, calls.get());
+        assertEquals(0.0, registry.get("singleflight.coalescing.ratio").tag("name", "prices").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Share a failure with the waiters, then forget it")
+    public void testShareFailure() {
+        List<Throwable> errors = Flux.range(0, 10)
+                .flatMap(i -> prices.execute(1L, () -> Mono.delay(Duration.ofMillis(100))
+                        .doOnSubscribe(s -> calls.incrementAndGet())
+                        .then(Mono.<String>error(new IllegalStateException("service down"))))
+                        .map(price -> (Throwable) null)
+                        .onErrorResume(e -> Mono.just(e)))
+                .collectList()
+                .block();
+
+        assertEquals(10, errors.size());
+        assertEquals(1, calls.get());
+        assertEquals(0, prices.inFlight());
+        assertEquals("USD 100.00", prices.execute(1L, this::slowPrice).block());
+    }
+
+    @Test
+    @DisplayName("Forget a call its only caller cancelled")
+    public void testForgetCancelledCall() {
+        prices.execute(1L, () -> Mono.<String>never().doOnSubscribe(s -> calls.incrementAndGet()))
+                .subscribe()
+                .dispose();
+
+        assertEquals(0, prices.inFlight());
+        assertEquals("USD 100.00", prices.execute(1L, this::slowPrice).block(Duration.ofSeconds(5)));
+        assertEquals(2, calls.get());
+    }
+
+    private Mono<String> slowPrice() {
+        return Mono.delay(Duration.ofMillis(100))
+                .doOnSubscribe(s -> calls.incrementAndGet())
+                .thenReturn("USD 100.00");
+    }
+}
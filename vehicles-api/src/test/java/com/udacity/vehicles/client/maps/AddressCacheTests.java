@@ -0,0 +1,51 @@
+package com.udacity.vehicles.client.maps;
+
+import com.udacity.vehicles.domain.Location;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AddressCacheTests {
+
+    private SimpleMeterRegistry registry;
+    private AddressCache cache;
+    private Address address;
+
+    @BeforeEach
+    public void beforeEach() {
+        registry = new SimpleMeterRegistry();
+        cache = new AddressCache(4, 100, 60, registry);
+        address = new Address();
+        address.setAddress("777 Brockton Avenue");
+        address.setCity("Abington");
+        address.setState("MA");
+        address.setZip("2351");
+    }
+
+    @Test
+    @DisplayName("Share an address between nearby coordinates")
+    public void testNearbyLocationsShareAddress() {
+        cache.put(new Location(40.730610, -73.935242), address);
+
+        assertSame(address, cache.get(new Location(40.730612, -73.935239)));
+        assertNull(cache.get(new Location(40.731610, -73.935242)));
+    }
+
+    @Test
+    @DisplayName("Count hits and misses")
+    public void testHitAndMissMetrics() {
+        Location location = new Location(40.730610, -73.935242);
+        cache.get(location);
+        cache.put(location, address);
+        cache.get(location);
+        cache.get(location);
+
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "maps.addresses")
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "maps.addresses")
+                .tag("result", "miss").functionCounter().count());
+    }
+}
@@ -0,0 +1,100 @@
+package com.udacity.vehicles.client.prices;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceCacheTests {
+
+    private PriceCache cache;
+
+    @BeforeEach
+    public void beforeEach() {
+        cache = new PriceCache(100, 60, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Cache a price until it is invalidated")
+    public void testInvalidate() {
+        cache.put(1L, "USD 100.00", cache.version(1L));
+        assertEquals("USD 100.00", cache.get(1L));
+
+        cache.invalidate(1L);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    @DisplayName("Keep when each price was stored")
+    public void testStoredAt() {
+        Instant before = Instant.now();
+        cache.put(1L, "USD 100.00", cache.version(1L));
+
+        PriceCache.Entry entry = cache.getEntry(1L);
+        assertEquals("USD 100.00", entry.getPrice());
+        assertFalse(entry.getStoredAt().isBefore(before));
+        assertNull(cache.getEntry(2L));
+    }
+
+    @Test
+    @DisplayName("Reject a price fetched before an invalidation")
+    public void testRejectStalePrice() {
+        long version = cache.version(1L);
+        cache.invalidate(1L);
+        cache.put(1L, "USD 100.00", version);
+
+        assertNull(cache.get(1L));
+    }
+
+    /**
+     * Races lookups against invalidations.  Whatever the interleaving, once
+     * the last invalidation has happened no lookup that started before it
+     * may leave its price in the cache.
+     */
+    @Test
+    @DisplayName("Never keep a stale price under concurrent updates")
+    public void testConcurrentInvalidation() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int round = 0; round < 200; round++) {
+            long vehicleId = round;
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(8);
+            long[] versions = new long[4];
+            for (int i = 0; i < 4; i++) {
+                versions[i] = cache.version(vehicleId);
+            }
+            for (int i = 0; i < 4; i++) {
+                int lookup = i;
+                executor.execute(() -> {
+                    await(start);
+                    cache.put(vehicleId, "USD stale", versions[lookup]);
+                    done.countDown();
+                });
+                executor.execute(() -> {
+                    await(start);
+                    cache.invalidate(vehicleId);
+                    done.countDown();
+                });
+            }
+            start.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertNull(cache.get(vehicleId), "stale price kept for vehicle " + vehicleId);
+        }
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.udacity.vehicles.client.prices;
+
+import com.udacity.vehicles.client.DownstreamPolicy;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceClientTests {
+
+    private final List<List<String>> requested = new CopyOnWriteArrayList<>();
+    private PriceCache cache;
+    private PriceClient client;
+
+    @BeforeEach
+    public void beforeEach() {
+        // answers every lookup with a price of 10 times the vehicle id
+        WebClient pricing = WebClient.builder()
+                .exchangeFunction(request -> {
+                    List<String> ids = UriComponentsBuilder.fromUri(request.url()).build()
+                            .getQueryParams().get("vehicle_ids");
+                    requested.add(ids);
+                    String prices = ids.stream()
+                            .map(id -> "{\"currency\":\"USD\",\"price\":" + id + "0,\"vehicle_id\":" + id + "}")
+                            .collect(Collectors.joining(","));
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"_embedded\":{\"prices\":[" + prices + "]}}")
+                            .build());
+                })
+                .build();
+        DownstreamPolicy policy = DownstreamPolicy.of("pricing", Duration.ofSeconds(5), 10,
+                50, 10, Duration.ofSeconds(30), BulkheadRegistry.ofDefaults(), CircuitBreakerRegistry.ofDefaults());
+        cache = new PriceCache(1000, 60, new SimpleMeterRegistry());
+        client = new PriceClient(pricing, cache, policy, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    @DisplayName("Look up many prices a bounded number of ids per request")
+    public void testSplitLookups() {
+        List<Long> vehicleIds = LongStream.rangeClosed(1, 250).boxed().collect(Collectors.toList());
+
+        Map<Long, String> prices = client.getPrices(vehicleIds);
+
+        assertEquals(250, prices.size());
+        assertEquals("USD 2500", prices.get(250L));
+        assertEquals(List.of(100, 100, 50),
+                requested.stream().map(List::size).sorted((a, b) -> b - a).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Request only the prices missing from the cache")
+    public void testSkipCachedPrices() {
+        cache.put(1L, "EUR 9", cache.version(1L));
+
+        Map<Long, String> prices = client.getPrices(List.of(1L, 2L));
+
+        assertEquals("EUR 9", prices.get(1L));
+        assertEquals("USD 20", prices.get(2L));
+        assertEquals(List.of(List.of("2")), requested);
+    }
+}
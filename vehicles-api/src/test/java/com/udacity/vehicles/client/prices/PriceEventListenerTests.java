@@ -0,0 +1,59 @@
+package com.udacity.vehicles.client.prices;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jms.core.JmsTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Delivers price change events through the embedded in-memory broker,
+ * standing in for the broker shared with the pricing service.
+ */
+@SpringBootTest
+public class PriceEventListenerTests {
+
+    @Autowired
+    PriceCache cache;
+
+    @Autowired
+    JmsTemplate jmsTemplate;
+
+    @Value("${prices.events.destination}")
+    String destination;
+
+    @Test
+    @DisplayName("Evict a cached price when its change is published")
+    public void testEvictOnPriceChange() throws InterruptedException {
+        cache.put(900L, "USD 100.00", cache.version(900L));
+        cache.put(901L, "USD 200.00", cache.version(901L));
+
+        jmsTemplate.convertAndSend(destination, new PriceChangedEvent(900L));
+
+        assertTrue(awaitEviction(900L), "price was not evicted");
+        assertEquals("USD 200.00", cache.get(901L));
+    }
+
+    @Test
+    @DisplayName("Drop a lookup in flight when its price changes")
+    public void testDropLookupInFlight() throws InterruptedException {
+        cache.put(902L, "USD 100.00", cache.version(902L));
+        // a lookup starts, then the price is changed before it returns
+        long version = cache.version(902L);
+        jmsTemplate.convertAndSend(destination, new PriceChangedEvent(902L));
+        assertTrue(awaitEviction(902L), "price was not evicted");
+
+        cache.put(902L, "USD 100.00", version);
+        assertNull(cache.get(902L));
+    }
+
+    private boolean awaitEviction(Long vehicleId) throws InterruptedException {
+        for (int i = 0; i < 50 && cache.get(vehicleId) != null; i++) {
+            Thread.sleep(100);
+        }
+        return cache.get(vehicleId) == null;
+    }
+}
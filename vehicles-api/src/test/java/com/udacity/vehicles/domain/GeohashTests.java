@@ -0,0 +1,72 @@
+package com.udacity.vehicles.domain;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeohashTests {
+
+    @Test
+    @DisplayName("Encode points as the usual geohashes")
+    public void testEncode() {
+        assertEquals("u4pruydqqvj", Geohash.encode(57.64911, 10.40744, 11));
+        assertEquals("dr5rt", Geohash.encode(40.73061, -73.935242, 5));
+        assertEquals("000000000000", Geohash.encode(-90, -180, Geohash.MAX_PRECISION));
+        assertEquals("zzzzzzzzzzzz", Geohash.encode(90, 179.9999999, Geohash.MAX_PRECISION));
+        assertEquals(Geohash.encode(10, -180, 6), Geohash.encode(10, 180, 6));
+    }
+
+    @Test
+    @DisplayName("Cover a circle with cells holding every point within it")
+    public void testCover() {
+        List<String> cells = Geohash.cover(40.73, -73.93, 5, 16);
+
+        assertTrue(cells.size() <= 16, cells.toString());
+        for (int bearing = 0; bearing < 360; bearing += 15) {
+            double[] point = destination(40.73, -73.93, 4.99, bearing);
+            String hash = Geohash.encode(point[0], point[1], Geohash.MAX_PRECISION);
+            assertTrue(cells.stream().anyMatch(hash::startsWith), hash + " at " + bearing + " degrees not covered");
+        }
+    }
+
+    @Test
+    @DisplayName("Cover a circle across the antimeridian")
+    public void testCoverAntimeridian() {
+        List<String> cells = Geohash.cover(-16.5, 179.99, 20, 16);
+
+        assertTrue(cells.stream().anyMatch(Geohash.encode(-16.5, -179.9, 12)::startsWith));
+        assertTrue(cells.stream().anyMatch(Geohash.encode(-16.5, 179.9, 12)::startsWith));
+    }
+
+    @Test
+    @DisplayName("Cover every longitude around a pole")
+    public void testCoverPole() {
+        List<String> cells = Geohash.cover(89.99, 0, 50, 64);
+
+        for (int lon = -180; lon < 180; lon += 10) {
+            String hash = Geohash.encode(89.9, lon, 12);
+            assertTrue(cells.stream().anyMatch(hash::startsWith), hash + " not covered");
+        }
+    }
+
+    @Test
+    @DisplayName("Measure great circle distances")
+    public void testDistance() {
+        assertEquals(0, Geohash.distanceKm(40.73, -73.93, 40.73, -73.93), 1e-9);
+        assertEquals(111.2, Geohash.distanceKm(0, 0, 1, 0), 0.1);
+        assertEquals(22.2, Geohash.distanceKm(0, 179.9, 0, -179.9), 0.1);
+        assertEquals(5570, Geohash.distanceKm(51.5074, -0.1278, 40.7128, -74.0060), 10);
+    }
+
+    private static double[] destination(double lat, double lon, double km, double bearing) {
+        double delta = km / Geohash.EARTH_RADIUS_KM;
+        double theta = Math.toRadians(bearing);
+        double phi = Math.toRadians(lat);
+        double phi2 = Math.asin(Math.sin(phi) * Math.cos(delta) + Math.cos(phi) * Math.sin(delta) * Math.cos(theta));
+        double lambda2 = Math.toRadians(lon) + Math.atan2(Math.sin(theta) * Math.sin(delta) * Math.cos(phi),
+                Math.cos(delta) - Math.sin(phi) * Math.sin(phi2));
+        return new double[] {Math.toDegrees(phi2), Math.toDegrees(lambda2)};
+    }
+}
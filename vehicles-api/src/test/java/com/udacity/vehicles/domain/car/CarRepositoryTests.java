@@ -0,0 +1,156 @@
+package com.udacity.vehicles.domain.car;
+
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import com.udacity.vehicles.domain.manufacturer.ManufacturerRepository;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+public class CarRepositoryTests {
+
+    @Autowired
+    CarRepository repository;
+
+    @Autowired
+    ManufacturerRepository manufacturers;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("List 1,000 cars of every manufacturer with one select")
+    public void testListCars() {
+        repository.saveAll(cars(1_000));
+
+        statistics.clear();
+        List<Car> cars = repository.findAll();
+
+        assertTrue(cars.size() >= 1_000);
+        cars.forEach(car -> assertNotNull(car.getDetails().getManufacturer().getName()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        repository.findAll(PageRequest.of(0, 500));
+        repository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 500));
+
+        // a count for the page, then one select per query
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Read manufacturers from the second-level cache")
+    public void testCachedManufacturer() {
+        manufacturers.findById(102);
+
+        statistics.clear();
+        Manufacturer ford = manufacturers.findById(102).get();
+
+        assertEquals("Ford", ford.getName());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("manufacturer").getHitCount());
+    }
+
+    @Test
+    @DisplayName("Search cars combining filters")
+    public void testSearch() {
+        String model = "Search " + UUID.randomUUID();
+        List<Car> cars = cars(6);
+        cars.forEach(car -> car.getDetails().setModel(model));
+        cars.get(0).getDetails().setModelYear(2015);
+        cars.get(1).getDetails().setModelYear(2019);
+        cars.get(1).getDetails().setMileage(80_000);
+        cars.get(2).getDetails().setModelYear(2020);
+        cars.get(2).getDetails().setMileage(10_000);
+        cars.get(3).setLocation(new Location(-17.5, 179.5));
+        cars.get(4).setLocation(new Location(-17.7, -179.5));
+        cars.get(5).setCondition(Condition.NEW);
+        repository.saveAll(cars);
+
+        assertEquals(6, search(model, filter -> { }).size());
+        assertEquals(Set.of(cars.get(1).getId(), cars.get(2).getId()), search(model, filter -> filter.setMinModelYear(2018)));
+        assertEquals(Set.of(cars.get(2).getId()), search(model, filter -> {
+            filter.setMinModelYear(2018);
+            filter.setMaxMileage(50_000);
+        }));
+        assertEquals(Set.of(cars.get(5).getId()), search(model, filter -> filter.setCondition(Condition.NEW)));
+        // a box across the antimeridian
+        assertEquals(Set.of(cars.get(3).getId(), cars.get(4).getId()), search(model, filter -> {
+            filter.setSouth(-18.0);
+            filter.setNorth(-17.0);
+            filter.setWest(179.0);
+            filter.setEast(-179.0);
+        }));
+    }
+
+    @Test
+    @DisplayName("Search through the index of each filtered column")
+    public void testSearchUsesIndexes() {
+        repository.saveAll(cars(100));
+
+        assertUsesIndex("CAR_MANUFACTURER_MODEL", "manufacturer_code = 101 and model = 'Model 101'");
+        assertUsesIndex("CAR_MILEAGE", "mileage between 100000 and 100500");
+        assertUsesIndex("CAR_MODEL_YEAR", "model_year between 2019 and 2020");
+        assertUsesIndex("CAR_LOCATION", "lat between 40.5 and 41.0 and lon between -74.5 and -73.5");
+    }
+
+    private void assertUsesIndex(String index, String where) {
+        String plan = jdbcTemplate.queryForObject("explain select * from car where " + where, String.class);
+        assertTrue(plan.contains("PUBLIC." + index + ":"), plan);
+    }
+
+    private Set<Long> search(String model, Consumer<CarFilter> filters) {
+        CarFilter filter = new CarFilter();
+        filter.setModel(model);
+        filters.accept(filter);
+        return repository.findAll(filter.toSpecification()).stream()
+                .map(Car::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private List<Car> cars(int count) {
+        List<Manufacturer> all = manufacturers.findAll();
+        return IntStream.range(0, count).mapToObj(i -> {
+            Details details = new Details();
+            details.setBody("sedan");
+            details.setModel("Model " + i);
+            details.setManufacturer(all.get(i % all.size()));
+            Car car = new Car();
+            car.setCondition(Condition.USED);
+            car.setDetails(details);
+            car.setLocation(new Location(40.73, -73.93));
+            return car;
+        }).collect(Collectors.toList());
+    }
+}
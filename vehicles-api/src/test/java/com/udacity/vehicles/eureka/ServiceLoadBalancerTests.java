@@ -0,0 +1,213 @@
+package com.udacity.vehicles.eureka;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ServiceLoadBalancerTests {
+
+    private static final ClientRequest REQUEST = ClientRequest
+            .create(HttpMethod.GET, URI.create("http://pricing-service/prices/search/findByVehicleId?vehicle_id=1"))
+            .build();
+
+    private DiscoveryClient discoveryClient;
+    private List<ServiceInstance> registered;
+    private MutableClock clock;
+
+    @BeforeEach
+    public void beforeEach() {
+        registered = new ArrayList<>(Arrays.asList(instance(8082), instance(8083), instance(8084)));
+        discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getInstances("pricing-service")).thenAnswer(invocation -> registered);
+        clock = new MutableClock();
+    }
+
+    @Test
+    @DisplayName("Send requests to each instance in turn")
+    public void testRoundRobin() {
+        ServiceLoadBalancer balancer = balancer(ServiceLoadBalancer.Strategy.ROUND_ROBIN);
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            counts.merge(balancer.choose().get().getUri().getPort(), 1, Integer::sum);
+        }
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertEquals(10, (int) count));
+    }
+
+    @Test
+    @DisplayName("Send requests to the instance with the fewest in flight")
+    public void testLeastOutstanding() {
+        ServiceLoadBalancer balancer = balancer(ServiceLoadBalancer.Strategy.LEAST_OUTSTANDING);
+
+        // two requests hang on whichever instances they were sent to
+        List<Integer> busy = new ArrayList<>();
+        List<Disposable> inFlight = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            inFlight.add(balancer.filter(REQUEST, request -> {
+                busy.add(request.url().getPort());
+                return Mono.never();
+            }).subscribe());
+        }
+
+        for (int i = 0; i < 5; i++) {
+            int port = balancer.choose().get().getUri().getPort();
+            assertFalse(busy.contains(port), "sent to busy instance " + port);
+        }
+
+        inFlight.forEach(Disposable::dispose);
+        balancer.getInstances().forEach(instance -> assertEquals(0, instance.getOutstanding()));
+    }
+
+    @Test
+    @DisplayName("Eject an instance failing repeatedly, then take it back")
+    public void testEjection() {
+        ServiceLoadBalancer balancer = balancer(ServiceLoadBalancer.Strategy.ROUND_ROBIN);
+
+        // every request to 8083 fails with a 500
+        for (int i = 0; i < 9; i++) {
+            balancer.filter(REQUEST, request -> Mono.just(ClientResponse.create(
+                    request.url().getPort() == 8083 ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK).build()))
+                    .block();
+        }
+        for (int i = 0; i < 10; i++) {
+            assertNotEquals(8083, balancer.choose().get().getUri().getPort());
+        }
+
+        clock.advance(Duration.ofSeconds(31));
+        boolean chosen = false;
+        for (int i = 0; i < 3; i++) {
+            chosen |= balancer.choose().get().getUri().getPort() == 8083;
+        }
+        assertTrue(chosen, "the instance was not taken back");
+    }
+
+    @Test
+    @DisplayName("Eject an instance that never answers")
+    public void testEjectHungInstance() {
+        ServiceLoadBalancer balancer = balancer(ServiceLoadBalancer.Strategy.ROUND_ROBIN);
+
+        // 8083 hangs until the response timeout fails the request
+        for (int i = 0; i < 9; i++) {
+            balancer.filter(REQUEST, request -> request.url().getPort() == 8083
+                    ? Mono.never()
+                    : Mono.just(ClientResponse.create(HttpStatus.OK).build()))
+                    .onErrorResume(TimeoutException.class, e -> Mono.empty())
+                    .block();
+        }
+        for (int i = 0; i < 10; i++) {
+            assertNotEquals(8083, balancer.choose().get().getUri().getPort());
+        }
+    }
+
+    @Test
+    @DisplayName("Keep an instance whose requests the callers cancelled")
+    public void testIgnoreCancelledRequests() {
+        ServiceLoadBalancer balancer = balancer(ServiceLoadBalancer.Strategy.ROUND_ROBIN);
+
+        for (int i = 0; i < 30; i++) {
+            balancer.filter(REQUEST, request -> Mono.never()).subscribe().dispose();
+        }
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            counts.merge(balancer.choose().get().getUri().getPort(), 1, Integer::sum);
+        }
+        assertEquals(3, counts.size());
+        balancer.getInstances().forEach(instance -> assertEquals(0, instance.getOutstanding()));
+    }
+
+    @Test
+    @DisplayName("Read an instance url without advancing the rotation")
+    public void testLookupKeepsRotation() {
+        ServiceLoadBalancer balancer = balancer(ServiceLoadBalancer.Strategy.ROUND_ROBIN);
+
+        int first = balancer.choose().get().getUri().getPort();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("http://localhost:8082", balancer.lookup());
+        }
+        assertEquals(first + 1, balancer.choose().get().getUri().getPort());
+    }
+
+    @Test
+    @DisplayName("Pick up instances registered after startup")
+    public void testRefresh() {
+        registered.clear();
+        ServiceLoadBalancer balancer = balancer(ServiceLoadBalancer.Strategy.ROUND_ROBIN);
+        assertEquals("http://localhost:8082", balancer.lookup());
+
+        registered.add(instance(8090));
+        balancer.refresh();
+        assertEquals("http://localhost:8090", balancer.lookup());
+    }
+
+    @Test
+    @DisplayName("Rewrite the request url to the chosen instance")
+    public void testRouteRequest() {
+        ServiceLoadBalancer balancer = balancer(ServiceLoadBalancer.Strategy.ROUND_ROBIN);
+
+        URI url = balancer.filter(REQUEST, request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header("X-Url", request.url().toString()).build()))
+                .map(response -> URI.create(response.headers().asHttpHeaders().getFirst("X-Url")))
+                .block();
+
+        assertEquals("localhost", url.getHost());
+        assertEquals("/prices/search/findByVehicleId", url.getPath());
+        assertEquals("vehicle_id=1", url.getQuery());
+    }
+
+    private ServiceLoadBalancer balancer(ServiceLoadBalancer.Strategy strategy) {
+        return new ServiceLoadBalancer(discoveryClient, true, "pricing-service", "http://localhost:8082",
+                strategy, 3, Duration.ofSeconds(30), Duration.ofMillis(50), clock);
+    }
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance("pricing-service:" + port, "pricing-service", "localhost", port, false);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
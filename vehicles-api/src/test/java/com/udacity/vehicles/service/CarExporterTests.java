@@ -0,0 +1,103 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@SpringBootTest(properties = "vehicles.export.window=100")
+public class CarExporterTests {
+
+    @Autowired
+    CarExporter exporter;
+
+    @Autowired
+    CarRepository repository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @MockBean
+    PriceClient priceClient;
+
+    @MockBean
+    MapsClient mapsClient;
+
+    @BeforeEach
+    public void beforeEach() {
+        given(priceClient.getPricesAsync(any())).willAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return Mono.just(ids.stream().collect(Collectors.toMap(Function.identity(), id -> "USD " + id)));
+        });
+        given(mapsClient.getAddressAsync(any())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @Test
+    @DisplayName("Export every car, enriched a window at a time")
+    public void testExportCars() {
+        List<Long> ids = repository.saveAll(cars(250)).stream().map(Car::getId).collect(Collectors.toList());
+        List<Integer> windows = new ArrayList<>();
+        List<Car> exported = new ArrayList<>();
+
+        int count = exporter.exportCars(ids.get(0) - 1, cars -> {
+            windows.add(cars.size());
+            cars.forEach(car -> assertFalse(entityManager.contains(car), "car " + car.getId() + " still managed"));
+            exported.addAll(cars);
+        });
+
+        assertEquals(250, count);
+        assertEquals(List.of(100, 100, 50), windows);
+        assertEquals(ids, exported.stream().map(Car::getId).collect(Collectors.toList()));
+        exported.forEach(car -> assertEquals("USD " + car.getId(), car.getPrice()));
+    }
+
+    @Test
+    @DisplayName("Resume an export after a car id")
+    public void testExportAfter() {
+        List<Car> saved = repository.saveAll(cars(5));
+        Map<Long, Car> exported = new LinkedHashMap<>();
+
+        exporter.exportCars(saved.get(2).getId(), cars -> cars.forEach(car -> exported.put(car.getId(), car)));
+
+        assertEquals(List.of(saved.get(3).getId(), saved.get(4).getId()), new ArrayList<>(exported.keySet()));
+    }
+
+    private static List<Car> cars(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Details details = new Details();
+            details.setBody("sedan");
+            details.setModel("Impala");
+            details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+            details.setMileage(i);
+            Car car = new Car();
+            car.setCondition(Condition.USED);
+            car.setDetails(details);
+            car.setLocation(new Location(40.73, -73.93));
+            return car;
+        }).collect(Collectors.toList());
+    }
+}
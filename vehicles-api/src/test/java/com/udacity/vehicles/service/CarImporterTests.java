@@ -0,0 +1,116 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "vehicles.import.batch-size=100"
+})
+public class CarImporterTests {
+
+    @Autowired
+    CarImporter importer;
+
+    @Autowired
+    CarRepository repository;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Save many cars with batched inserts")
+    public void testImportCars() {
+        long before = repository.count();
+        List<Long> ids = new ArrayList<>();
+
+        int count = importer.importCars(cars(1_000).iterator(), car -> ids.add(car.getId()));
+
+        assertEquals(1_000, count);
+        assertEquals(before + 1_000, repository.count());
+        assertEquals(1_000, new HashSet<>(ids).size());
+        assertEquals(1_000, statistics.getEntityInsertCount());
+        // 10 batches of inserts and 20 blocks of 50 ids instead of 2,000 statements
+        assertTrue(statistics.getPrepareStatementCount() < 100,
+                statistics.getPrepareStatementCount() + " statements prepared");
+    }
+
+    @Test
+    @DisplayName("Save none of the cars when one is invalid")
+    public void testRejectInvalidCar() {
+        long before = repository.count();
+        List<Car> cars = cars(250);
+        cars.get(150).getDetails().setModel("");
+        cars.get(200).getDetails().setManufacturer(new Manufacturer(999, "Unknown"));
+
+        InvalidCarsException e = assertThrows(InvalidCarsException.class,
+                () -> importer.importCars(cars.iterator(), car -> { }));
+
+        assertEquals(Arrays.asList(
+                "[150].details.model: must not be blank",
+                "[200].details.manufacturer.code: unknown manufacturer 999"), e.getErrors());
+        assertEquals(before, repository.count());
+    }
+
+    @Test
+    @DisplayName("Update the cars given with an id")
+    public void testUpdateCars() {
+        List<Car> saved = new ArrayList<>();
+        importer.importCars(cars(2).iterator(), saved::add);
+
+        saved.forEach(car -> car.getDetails().setMileage(50_000));
+        Car unknown = cars(1).get(0);
+        unknown.setId(-1L);
+
+        importer.importCars(saved.iterator(), car -> { });
+        saved.forEach(car -> assertEquals(50_000, (int) repository.findById(car.getId()).get().getDetails().getMileage()));
+
+        InvalidCarsException e = assertThrows(InvalidCarsException.class,
+                () -> importer.importCars(Arrays.asList(saved.get(0), unknown).iterator(), car -> { }));
+        assertEquals(Arrays.asList("[1].id: no car with id -1"), e.getErrors());
+    }
+
+    private static List<Car> cars(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Details details = new Details();
+            details.setBody("sedan");
+            details.setModel("Impala");
+            details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+            details.setMileage(i);
+            Car car = new Car();
+            car.setCondition(Condition.USED);
+            car.setDetails(details);
+            car.setLocation(new Location(40.73, -73.93));
+            return car;
+        }).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,144 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.client.maps.MapsClient;
+import com.udacity.vehicles.client.prices.PriceClient;
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Geohash;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.CarRepository;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@SpringBootTest
+public class CarLocatorTests {
+
+    @Autowired
+    CarLocator locator;
+
+    @Autowired
+    CarRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    PriceClient priceClient;
+
+    @MockBean
+    MapsClient mapsClient;
+
+    private final List<Long> saved = new ArrayList<>();
+
+    @BeforeEach
+    public void beforeEach() {
+        given(priceClient.getPricesAsync(any())).willAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return Mono.just(ids.stream().collect(Collectors.toMap(Function.identity(), id -> "USD " + id)));
+        });
+        given(mapsClient.getAddressAsync(any())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    public void afterEach() {
+        saved.forEach(repository::deleteById);
+    }
+
+    @Test
+    @DisplayName("Find the cars within a radius, nearest first")
+    public void testNear() {
+        Car far = save(64.20, -21.90);      // 7.8 km north
+        Car near = save(64.131, -21.901);   // 0.1 km
+        Car middle = save(64.15, -21.95);   // 3.2 km
+        save(65.13, -21.90);                // 111 km, outside
+
+        List<NearbyCar> found = locator.near(64.13, -21.90, 10, 20);
+
+        assertEquals(Arrays.asList(near.getId(), middle.getId(), far.getId()),
+                found.stream().map(c -> c.getCar().getId()).collect(Collectors.toList()));
+        assertEquals(0.12, found.get(0).getDistanceKm(), 0.01);
+        assertEquals("USD " + near.getId(), found.get(0).getCar().getPrice());
+    }
+
+    @Test
+    @DisplayName("Keep only the nearest cars up to the limit")
+    public void testNearLimit() {
+        Car near = save(64.131, -21.901);
+        Car middle = save(64.15, -21.95);
+        save(64.20, -21.90);
+
+        List<NearbyCar> found = locator.near(64.13, -21.90, 10, 2);
+
+        assertEquals(Arrays.asList(near.getId(), middle.getId()),
+                found.stream().map(c -> c.getCar().getId()).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Find cars across the antimeridian")
+    public void testNearAntimeridian() {
+        Car east = save(-16.5, 179.95);
+        Car west = save(-16.5, -179.95);
+
+        List<NearbyCar> found = locator.near(-16.5, 179.99, 20, 20);
+
+        assertEquals(Arrays.asList(east.getId(), west.getId()),
+                found.stream().map(c -> c.getCar().getId()).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Keep the geohash in step with the location")
+    public void testGeohashUpdated() {
+        Car car = save(64.13, -21.90);
+        car.setLocation(new Location(51.5074, -0.1278));
+        repository.save(car);
+
+        assertEquals(Geohash.encode(51.5074, -0.1278, Geohash.MAX_PRECISION),
+                jdbcTemplate.queryForObject("select geohash from car where id = ?", String.class, car.getId()));
+        assertTrue(locator.near(64.13, -21.90, 10, 20).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Read each covering cell through a range scan of the geohash index")
+    public void testCellsScanGeohashIndex() {
+        save(40.73, -73.93);
+
+        for (String cell : Geohash.cover(40.73, -73.93, 10, 16)) {
+            String plan = jdbcTemplate.queryForObject(
+                    "explain select id, lat, lon from car where geohash like ?", String.class, cell + "%");
+            assertTrue(plan.contains("PUBLIC.CAR_GEOHASH: GEOHASH >= "), plan);
+        }
+    }
+
+    private Car save(double lat, double lon) {
+        Details details = new Details();
+        details.setBody("sedan");
+        details.setModel("Model S");
+        details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+        Car car = new Car();
+        car.setCondition(Condition.USED);
+        car.setDetails(details);
+        car.setLocation(new Location(lat, lon));
+        car = repository.save(car);
+        saved.add(car.getId());
+        return car;
+    }
+}
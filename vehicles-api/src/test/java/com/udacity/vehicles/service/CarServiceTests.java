@@ -1,6 +1,7 @@
 package com.udacity.vehicles.service;
 
 import java.time.LocalDateTime;
+import com.udacity.vehicles.client.prices.PriceCache;
 import com.udacity.vehicles.domain.Condition;
 import com.udacity.vehicles.domain.Location;
 import com.udacity.vehicles.domain.car.Car;
@@ -35,6 +36,9 @@ public class CarServiceTests {
     @Autowired
     CarService carService;
 
+    @Autowired
+    PriceCache priceCache;
+
     @BeforeEach
     public void beforeEach() {
         Details details = new Details();
@@ -129,6 +133,47 @@ public class CarServiceTests {
         );
     }
 
+    /**
+     * Every listed car must come back with a price, even if the
+     * pricing service is down or the enrichment deadline passes.
+     * Prices for the whole list are fetched with a single request.
+     */
+    @Test
+    @DisplayName("List cars with price and location")
+    public void testListCars() {
+        boolean pricingAvailable = ServiceUtil.pingURL(eurekaUrl, 1000);
+
+        carService.save(chevy);
+        carService.save(audi);
+
+        carService.list().forEach(car -> {
+            assertNotNull(car.getPrice());
+            assertNotNull(car.getLocation());
+            if (pricingAvailable) {
+                assertNotEquals("(consult price)", car.getPrice());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Seek through cars by id")
+    public void testListCarsByKeyset() {
+        Car first = carService.save(chevy);
+        Car last = carService.save(audi);
+
+        CarKeysetPage page = carService.listAfter(first.getId() - 1, 1);
+        assertEquals(first.getId(), page.getFirstId());
+        assertTrue(page.hasNext());
+
+        page = carService.listAfter(page.getLastId(), 1);
+        assertEquals(last.getId(), page.getFirstId());
+        assertTrue(page.hasPrevious());
+
+        page = carService.listBefore(last.getId(), 1);
+        assertEquals(first.getId(), page.getLastId());
+        assertTrue(page.hasNext());
+    }
+
     @Test
     @DisplayName("Find a car with a bad id")
     public void testFindCarFail() {
@@ -150,4 +195,27 @@ public class CarServiceTests {
         assertEquals(saved.getDetails().getMileage(), updated.getDetails().getMileage());
 
     }
+
+    @Test
+    @DisplayName("Version a car by its record and cached price")
+    public void testCarVersion() {
+        Car saved = carService.save(chevy);
+        priceCache.invalidate(saved.getId());
+        assertFalse(carService.findCachedVersion(saved).isPresent());
+
+        priceCache.put(saved.getId(), "USD 25000.00", priceCache.version(saved.getId()));
+        CarVersion version = carService.findCachedVersion(saved).get();
+        assertFalse(version.getLastModified().isBefore(priceCache.getEntry(saved.getId()).getStoredAt()));
+
+        priceCache.invalidate(saved.getId());
+        priceCache.put(saved.getId(), "USD 24000.00", priceCache.version(saved.getId()));
+        assertNotEquals(version.getTag(), carService.findCachedVersion(saved).get().getTag());
+
+        saved.setPrice("USD 24000.00");
+        assertFalse(carService.versionOf(saved).isPresent(), "versioned without an address");
+        saved.getLocation().setAddress("777 Brockton Avenue");
+        assertTrue(carService.versionOf(saved).isPresent());
+        saved.setPrice("USD 25000.00");
+        assertFalse(carService.versionOf(saved).isPresent(), "versioned with a stale price");
+    }
 }
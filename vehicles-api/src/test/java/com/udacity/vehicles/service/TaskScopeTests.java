@@ -0,0 +1,78 @@
+package com.udacity.vehicles.service;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskScopeTests {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Join the results of every subtask")
+    public void testJoin() throws Exception {
+        try (TaskScope scope = new TaskScope(executor)) {
+            Future<String> price = scope.fork(() -> "USD 100.00");
+            Future<Integer> zip = scope.fork(() -> 2351);
+            scope.join(Duration.ofSeconds(5));
+            assertEquals("USD 100.00", price.get());
+            assertEquals(Integer.valueOf(2351), zip.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Cancel the other subtasks when one fails")
+    public void testCancelOnFailure() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (TaskScope scope = new TaskScope(executor)) {
+            Future<String> slow = scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return "too late";
+            });
+            // fail only once the slow subtask runs, so cancelling it has a thread to interrupt
+            scope.fork(() -> {
+                started.await(5, TimeUnit.SECONDS);
+                throw new IllegalStateException("service down");
+            });
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> scope.join(Duration.ofSeconds(5)));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertTrue(slow.isCancelled());
+        }
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "the slow subtask kept running");
+    }
+
+    @Test
+    @DisplayName("Cancel the subtasks when the deadline passes")
+    public void testCancelOnTimeout() throws Exception {
+        try (TaskScope scope = new TaskScope(executor)) {
+            Future<String> slow = scope.fork(() -> {
+                Thread.sleep(10_000);
+                return "too late";
+            });
+            assertThrows(TimeoutException.class, () -> scope.join(Duration.ofMillis(100)));
+            assertTrue(slow.isCancelled());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.udacity.vehicles.service;
+
+import com.udacity.vehicles.VehiclesApiApplication;
+import com.udacity.vehicles.domain.Condition;
+import com.udacity.vehicles.domain.Location;
+import com.udacity.vehicles.domain.car.Car;
+import com.udacity.vehicles.domain.car.Details;
+import com.udacity.vehicles.domain.manufacturer.Manufacturer;
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs only on JDK 21 or later, where the virtual-threads profile can start.
+ */
+@SpringBootTest
+@ActiveProfiles(VehiclesApiApplication.VIRTUAL_THREADS)
+@EnabledIfSystemProperty(named = "java.specification.version", matches = "2[1-9]|[3-9][0-9]")
+public class VirtualThreadsTests {
+
+    @Autowired
+    @Qualifier("enrichmentExecutor")
+    ExecutorService enrichmentExecutor;
+
+    @Autowired
+    CarService carService;
+
+    @Test
+    @DisplayName("Fork the enrichment calls onto virtual threads")
+    public void testEnrichmentOnVirtualThreads() throws Exception {
+        String thread = enrichmentExecutor.submit(() -> Thread.currentThread().toString()).get();
+        assertTrue(thread.startsWith("VirtualThread"), thread);
+    }
+
+    @Test
+    @DisplayName("Find a car with the lookups forked")
+    public void testFindCarById() {
+        Details details = new Details();
+        details.setBody("sedan");
+        details.setModel("Impala");
+        details.setManufacturer(new Manufacturer(101, "Chevrolet"));
+        Car car = new Car();
+        car.setCondition(Condition.NEW);
+        car.setLocation(new Location(40.730610, -73.935242));
+        car.setDetails(details);
+        Car saved = carService.save(car);
+
+        Car found = carService.findById(saved.getId());
+        assertNotNull(found.getPrice());
+        assertNotNull(found.getLocation());
+    }
+}